@@ -0,0 +1,24 @@
+package org.arkasha.jwtspringmaven;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@SpringBootApplication
+@EnableScheduling
+public class JwtSpringMavenApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(JwtSpringMavenApplication.class, args);
+	}
+
+	// Задачи applicationTaskExecutor продолжают спан и traceId вызывающего потока
+	@Bean
+	public TaskDecorator contextPropagatingTaskDecorator() {
+		return new ContextPropagatingTaskDecorator();
+	}
+
+}
@@ -0,0 +1,22 @@
+package org.arkasha.jwtspringmaven.audit;
+
+import org.arkasha.tokenverifier.TokenDigest;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Событие аудита. Поля, кроме типа, исхода и времени, необязательны.
+ * Отпечаток токена переводится в hex уже в потоке записи.
+ */
+public record AuditEvent(AuditEventType type, boolean success, UUID userId, String email,
+                         TokenDigest tokenDigest, Instant occurredAt) {
+
+    public static AuditEvent of(AuditEventType type, boolean success, UUID userId, String email) {
+        return new AuditEvent(type, success, userId, email, null, Instant.now());
+    }
+
+    public static AuditEvent tokenRevoked(UUID userId, String email, TokenDigest tokenDigest) {
+        return new AuditEvent(AuditEventType.TOKEN_REVOKED, true, userId, email, tokenDigest, Instant.now());
+    }
+}
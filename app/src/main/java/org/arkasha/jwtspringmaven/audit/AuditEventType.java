@@ -0,0 +1,8 @@
+package org.arkasha.jwtspringmaven.audit;
+
+public enum AuditEventType {
+    SIGN_IN,
+    REFRESH,
+    TOKEN_REVOKED,
+    SESSIONS_REVOKED
+}
@@ -0,0 +1,12 @@
+package org.arkasha.jwtspringmaven.audit;
+
+/**
+ * Приемник событий аудита. Вызывается на путях авторизации, поэтому не должен ждать I/O.
+ */
+public interface AuditLog {
+
+    AuditLog NOOP = event -> {
+    };
+
+    void record(AuditEvent event);
+}
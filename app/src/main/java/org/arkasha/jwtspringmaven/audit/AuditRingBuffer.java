@@ -0,0 +1,84 @@
+package org.arkasha.jwtspringmaven.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ограниченная очередь без блокировок: много писателей, один читатель.
+ * <p>
+ * Кольцо Вьюкова: у каждого слота есть номер последовательности. Писатель занимает позицию
+ * CAS-ом хвоста, кладет элемент и публикует слот записью номера; читатель забирает слот,
+ * только когда номер опубликован, и освобождает его для следующего круга.
+ * Полная очередь сразу возвращает false.
+ */
+final class AuditRingBuffer {
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Пишет только читатель; volatile - для size() из других потоков
+    private volatile long head;
+
+    AuditRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity * 2 - 1);
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(AuditEvent event) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = event;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            }
+            else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Только для потока-читателя
+     *
+     * @return сколько элементов добавлено в {@code target}
+     */
+    int drainTo(List<AuditEvent> target, int maxElements) {
+        long position = head;
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            target.add((AuditEvent) slots[index]);
+            slots[index] = null;
+            sequences.set(index, position + slots.length);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
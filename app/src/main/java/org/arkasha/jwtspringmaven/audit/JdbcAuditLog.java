@@ -0,0 +1,203 @@
+package org.arkasha.jwtspringmaven.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Журнал аудита в таблице {@code audit_events}.
+ * <p>
+ * {@link #record} только кладет событие в кольцевой буфер ({@link AuditRingBuffer}) и не ждет базу.
+ * Отдельный поток забирает события пачками по {@code audit.batch-size} и пишет их одним JDBC batch;
+ * пустой буфер он проверяет раз в {@code audit.flush-interval}, а заполненную пачку пишет сразу.
+ * <p>
+ * Переполненный буфер ({@code audit.overflow-policy}): {@code DROP} - событие отбрасывается
+ * и считается в {@code audit.events.dropped}; {@code BLOCK} - вызывающий поток ждет места
+ * не дольше {@code audit.block-timeout}, после чего событие тоже отбрасывается.
+ * При остановке поток дописывает все, что осталось в буфере.
+ * Неудачная пачка не повторяется: она считается в {@code audit.write.failures} и пишется в лог.
+ */
+@Component
+public class JdbcAuditLog implements AuditLog, MeterBinder {
+
+    private static final Logger LOGGER = LogManager.getLogger(JdbcAuditLog.class);
+
+    private static final String INSERT_SQL = "INSERT INTO audit_events"
+            + " (event_type, success, user_id, email, token_digest, occurred_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int MAX_EMAIL_LENGTH = 255;
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final AuditRingBuffer buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+
+    public JdbcAuditLog(JdbcTemplate jdbcTemplate,
+                        @Value("${audit.enabled:true}") boolean enabled,
+                        @Value("${audit.buffer-capacity:65536}") int bufferCapacity,
+                        @Value("${audit.batch-size:500}") int batchSize,
+                        @Value("${audit.flush-interval:200ms}") Duration flushInterval,
+                        @Value("${audit.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                        @Value("${audit.block-timeout:1s}") Duration blockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.buffer = new AuditRingBuffer(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.writer = new Thread(this::runWriter, "audit-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            running = true;
+            writer.start();
+        }
+    }
+
+    @Override
+    public void record(AuditEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!buffer.offer(event) && !(overflowPolicy == OverflowPolicy.BLOCK && offerBlocking(event))) {
+            dropped.increment();
+            return;
+        }
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private boolean offerBlocking(AuditEvent event) {
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        do {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (buffer.offer(event)) {
+                return true;
+            }
+        } while (running && System.nanoTime() - deadline < 0);
+        return false;
+    }
+
+    /**
+     * Останавливает поток записи и ждет, пока он допишет буфер
+     */
+    @PreDestroy
+    void close() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(SHUTDOWN_TIMEOUT.toMillis());
+        if (writer.isAlive()) {
+            LOGGER.warn("Audit writer did not finish in {}, {} events are lost", SHUTDOWN_TIMEOUT, buffer.size());
+        }
+    }
+
+    private void runWriter() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            // running читается до опустошения буфера: после остановки события уже не добавятся
+            boolean stopping = !running;
+            buffer.drainTo(batch, batchSize);
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+            else if (stopping) {
+                return;
+            }
+            else {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    setEvent(ps, batch.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+            written.add(batch.size());
+        } catch (DataAccessException e) {
+            writeFailures.add(batch.size());
+            LOGGER.warn("Failed to write {} audit events: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private static void setEvent(PreparedStatement ps, AuditEvent event) throws SQLException {
+        String email = event.email();
+        ps.setString(1, event.type().name());
+        ps.setBoolean(2, event.success());
+        ps.setObject(3, event.userId());
+        ps.setString(4, email != null && email.length() > MAX_EMAIL_LENGTH ? email.substring(0, MAX_EMAIL_LENGTH) : email);
+        ps.setString(5, event.tokenDigest() == null ? null : event.tokenDigest().toHex());
+        ps.setObject(6, OffsetDateTime.ofInstant(event.occurredAt(), ZoneOffset.UTC));
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting for the writer")
+                .register(registry);
+        FunctionCounter.builder("audit.events.written", written, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("audit.events.dropped", dropped, LongAdder::sum)
+                .description("Audit events dropped because the buffer was full")
+                .register(registry);
+        FunctionCounter.builder("audit.write.failures", writeFailures, LongAdder::sum)
+                .description("Audit events lost in failed batches")
+                .register(registry);
+    }
+}
@@ -0,0 +1,57 @@
+package org.arkasha.jwtspringmaven.controller;
+
+import org.arkasha.jwtspringmaven.dto.RefreshTokenDto;
+import org.arkasha.jwtspringmaven.dto.TokenIntrospectionDto;
+import org.arkasha.jwtspringmaven.dto.TokenIntrospectionRequestDto;
+import org.arkasha.jwtspringmaven.dto.UserCredentialsDto;
+import org.arkasha.jwtspringmaven.security.jwt.TokenIntrospector;
+import org.arkasha.jwtspringmaven.service.UserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/auth")
+public class AuthController {
+    // Отказы - обычный ответ, а не исключение: готовые ответы ничего не выделяют на каждый запрос
+    private static final ResponseEntity<String> SIGN_IN_FAILED = ResponseEntity.status(HttpStatus.FORBIDDEN)
+            .body("Authentication failed: Email or password is incorrect");
+    private static final ResponseEntity<String> REFRESH_FAILED = ResponseEntity.status(HttpStatus.FORBIDDEN)
+            .body("Authentication failed: Invalid refresh token");
+
+    private final UserService userService;
+    private final TokenIntrospector tokenIntrospector;
+
+    public AuthController(UserService userService, TokenIntrospector tokenIntrospector) {
+        this.userService = userService;
+        this.tokenIntrospector = tokenIntrospector;
+    }
+
+    @PostMapping("/sign-in")
+    public CompletableFuture<ResponseEntity<?>> signIn(@RequestBody UserCredentialsDto userCredentialsDto) {
+        return userService.signIn(userCredentialsDto)
+                .thenApply(tokens -> tokens.<ResponseEntity<?>>map(ResponseEntity::ok).orElse(SIGN_IN_FAILED));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenDto refreshTokenDto) {
+        return userService.refreshToken(refreshTokenDto)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(REFRESH_FAILED);
+    }
+
+    /**
+     * Проверка пачки токенов для шлюза: активен ли токен, subject, exp и отозван ли он.
+     * Шлюз может кэшировать активный результат до {@code exp}.
+     */
+    @PostMapping("/introspect")
+    public List<TokenIntrospectionDto> introspect(@RequestBody TokenIntrospectionRequestDto request) {
+        return tokenIntrospector.introspect(request.getTokens() != null ? request.getTokens() : List.of());
+    }
+}
@@ -0,0 +1,34 @@
+package org.arkasha.jwtspringmaven.controller;
+
+import org.arkasha.jwtspringmaven.security.signing.SigningKeyRing;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Открытые ключи подписи для проверки токенов в других сервисах.
+ * Ответ собран заранее при ротации; {@code If-None-Match} с текущим ETag дает 304.
+ * В режиме HMAC публиковать нечего - 404.
+ */
+@RestController
+public class JwksController {
+    private final SigningKeyRing signingKeyRing;
+
+    public JwksController(SigningKeyRing signingKeyRing) {
+        this.signingKeyRing = signingKeyRing;
+    }
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        if (!signingKeyRing.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        String jwks = signingKeyRing.jwks();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(signingKeyRing.getJwksMaxAge()).cachePublic())
+                .eTag(Integer.toHexString(jwks.hashCode()))
+                .body(jwks);
+    }
+}
@@ -1,10 +1,15 @@
 package org.arkasha.jwtspringmaven.controller;
 
+import org.arkasha.jwtspringmaven.dto.RegistrationResultDto;
 import org.arkasha.jwtspringmaven.dto.UserDto;
 import org.arkasha.jwtspringmaven.service.UserService;
 import org.springframework.data.crossstore.ChangeSetPersister;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/user")
 public class UserController {
@@ -15,10 +20,20 @@ public class UserController {
     }
 
     @PostMapping("/registration")
-    public String createUser(@RequestBody UserDto userDto) {
+    public CompletableFuture<String> createUser(@RequestBody UserDto userDto) {
         return userService.addUser(userDto);
     }
 
+    @PostMapping("/registration/batch")
+    public List<RegistrationResultDto> createUsers(@RequestBody List<UserDto> userDtos) {
+        return userService.addUsers(userDtos);
+    }
+
+    @PostMapping("/revoke-sessions")
+    public String revokeAllSessions(Authentication authentication) {
+        return userService.revokeAllSessions(authentication.getName());
+    }
+
     @GetMapping("/{id}")
     public UserDto getUserById(@PathVariable String id) throws ChangeSetPersister.NotFoundException {
         return userService.getUserById(id);
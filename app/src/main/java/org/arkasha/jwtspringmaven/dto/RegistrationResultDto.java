@@ -0,0 +1,23 @@
+package org.arkasha.jwtspringmaven.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RegistrationResultDto {
+    private int index;
+    private String email;
+    private Status status;
+    private UUID userId;
+
+    public enum Status {
+        CREATED,
+        DUPLICATE_EMAIL,
+        INVALID
+    }
+}
@@ -0,0 +1,19 @@
+package org.arkasha.jwtspringmaven.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат проверки одного токена, поля как в RFC 7662.
+ * {@code sub} и {@code exp} (секунды эпохи) заполнены только у активного токена.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenIntrospectionDto {
+    private boolean active;
+    private String sub;
+    private Long exp;
+    private boolean revoked;
+}
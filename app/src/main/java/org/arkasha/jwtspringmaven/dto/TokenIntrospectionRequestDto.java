@@ -0,0 +1,14 @@
+package org.arkasha.jwtspringmaven.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenIntrospectionRequestDto {
+    private List<String> tokens;
+}
@@ -0,0 +1,54 @@
+package org.arkasha.jwtspringmaven.entity;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Сессия пользователя на одном устройстве: текущая пара токенов.
+ * Токены хранятся только в виде отпечатков (TokenDigest), строка users при входе и refresh не меняется.
+ */
+@Entity
+@Table(name = "jwt-authentication", indexes = {
+        @Index(name = "idx_jwt_authentication_user_id", columnList = "user_id"),
+        @Index(name = "idx_jwt_authentication_refresh_token_hash", columnList = "refresh_token_hash", unique = true),
+        @Index(name = "idx_jwt_authentication_token_hash", columnList = "token_hash"),
+        @Index(name = "idx_jwt_authentication_expires_at", columnList = "expires_at")
+})
+@RequiredArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class JwtAuthentication {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "jwt_id")
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "token_hash", length = 32, nullable = false)
+    private String tokenHash;
+
+    @Column(name = "token_expires_at", nullable = false)
+    private Instant tokenExpiresAt;
+
+    @Column(name = "refresh_token_hash", length = 32, nullable = false)
+    private String refreshTokenHash;
+
+    // Срок жизни сессии - срок действия refresh-токена
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -2,12 +2,13 @@ package org.arkasha.jwtspringmaven.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Objects;
 import java.util.UUID;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "uk_users_email", columnList = "email", unique = true))
 @RequiredArgsConstructor
 @Getter
 @Setter
@@ -30,9 +31,7 @@ public class User {
     @Column(name = "password")
     private String password;
 
-    @Column(name = "token")
-    private String token;
-
-    @Column(name = "refresh-token")
-    private String refreshToken;
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
 }
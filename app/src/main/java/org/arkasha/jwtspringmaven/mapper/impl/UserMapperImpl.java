@@ -20,7 +20,6 @@ public class UserMapperImpl implements UserMapper {
 
     @Override
     public User toEntity(UserDto userDto) {
-        System.out.println("Mapping userDto: " + userDto.getEmail());
         User user = new User();
         user.setFirstName(userDto.getFirstName());
         user.setLastName(userDto.getLastName());
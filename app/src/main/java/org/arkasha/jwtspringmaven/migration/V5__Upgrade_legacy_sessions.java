@@ -0,0 +1,161 @@
+package org.arkasha.jwtspringmaven.migration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.arkasha.tokenverifier.TokenDigest;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Приводит базу, созданную через ddl-auto=update, к схеме V1-V2 без потери сессий.
+ * <p>
+ * Старые версии хранили токены сессии в открытом виде в {@code users.token} и {@code users."refresh-token"}.
+ * Для каждой такой пары с неистекшим refresh-токеном в {@code "jwt-authentication"} создается сессия
+ * с отпечатками ({@link TokenDigest}) и exp из самих токенов, после чего старые колонки удаляются.
+ * Строки {@code "jwt-authentication"} без пользователя или отпечатков - старая неиспользуемая таблица,
+ * сессиями они быть не могут и удаляются. На новой базе миграция ничего не меняет.
+ */
+public class V5__Upgrade_legacy_sessions extends BaseJavaMigration {
+
+    private static final Logger LOGGER = LogManager.getLogger(V5__Upgrade_legacy_sessions.class);
+
+    private static final String SESSIONS = "\"jwt-authentication\"";
+    private static final String SELECT_LEGACY_SQL =
+            "SELECT user_id, token, \"refresh-token\" FROM users WHERE \"refresh-token\" IS NOT NULL";
+    private static final String INSERT_SESSION_SQL = "INSERT INTO " + SESSIONS
+            + " (jwt_id, user_id, token_hash, token_expires_at, refresh_token_hash, expires_at, created_at, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER DEFAULT 0 NOT NULL");
+            statement.execute("ALTER TABLE " + SESSIONS + " ADD COLUMN IF NOT EXISTS user_id UUID");
+            statement.execute("ALTER TABLE " + SESSIONS + " ADD COLUMN IF NOT EXISTS token_hash VARCHAR(32)");
+            statement.execute("ALTER TABLE " + SESSIONS + " ADD COLUMN IF NOT EXISTS token_expires_at TIMESTAMP WITH TIME ZONE");
+            statement.execute("ALTER TABLE " + SESSIONS + " ADD COLUMN IF NOT EXISTS refresh_token_hash VARCHAR(32)");
+            statement.execute("ALTER TABLE " + SESSIONS + " ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP WITH TIME ZONE");
+            statement.execute("ALTER TABLE " + SESSIONS + " ADD COLUMN IF NOT EXISTS created_at TIMESTAMP WITH TIME ZONE");
+            statement.execute("ALTER TABLE " + SESSIONS + " ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE");
+        }
+
+        if (hasColumn(connection, "users", "refresh-token")) {
+            int moved = moveLegacySessions(connection);
+            LOGGER.info("Moved {} sessions from users to jwt-authentication", moved);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM " + SESSIONS + " WHERE user_id IS NULL OR token_hash IS NULL"
+                    + " OR token_expires_at IS NULL OR refresh_token_hash IS NULL OR expires_at IS NULL"
+                    + " OR user_id NOT IN (SELECT user_id FROM users)");
+            statement.execute("UPDATE " + SESSIONS + " SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL");
+            statement.execute("UPDATE " + SESSIONS + " SET updated_at = created_at WHERE updated_at IS NULL");
+            for (String column : new String[]{"user_id", "token_hash", "token_expires_at", "refresh_token_hash",
+                    "expires_at", "created_at", "updated_at"}) {
+                statement.execute("ALTER TABLE " + SESSIONS + " ALTER COLUMN " + column + " SET NOT NULL");
+            }
+            if (!hasForeignKey(connection, "jwt-authentication")) {
+                statement.execute("ALTER TABLE " + SESSIONS + " ADD CONSTRAINT fk_jwt_authentication_user"
+                        + " FOREIGN KEY (user_id) REFERENCES users (user_id) ON DELETE CASCADE");
+            }
+
+            statement.execute("ALTER TABLE users DROP COLUMN IF EXISTS token");
+            statement.execute("ALTER TABLE users DROP COLUMN IF EXISTS \"refresh-token\"");
+            statement.execute("ALTER TABLE users DROP COLUMN IF EXISTS token_hash");
+            statement.execute("ALTER TABLE users DROP COLUMN IF EXISTS refresh_token_hash");
+            statement.execute("ALTER TABLE " + SESSIONS + " DROP COLUMN IF EXISTS token");
+            statement.execute("ALTER TABLE " + SESSIONS + " DROP COLUMN IF EXISTS \"refresh-token\"");
+        }
+    }
+
+    private int moveLegacySessions(Connection connection) throws SQLException {
+        Timestamp now = Timestamp.from(Instant.now());
+        int moved = 0;
+        try (Statement select = connection.createStatement();
+             ResultSet rows = select.executeQuery(SELECT_LEGACY_SQL);
+             PreparedStatement insert = connection.prepareStatement(INSERT_SESSION_SQL)) {
+            while (rows.next()) {
+                String token = rows.getString(2);
+                String refreshToken = rows.getString(3);
+                Instant tokenExpiresAt = token != null ? expiresAt(token) : null;
+                Instant expiresAt = expiresAt(refreshToken);
+                if (tokenExpiresAt == null || expiresAt == null || !expiresAt.isAfter(now.toInstant())) {
+                    continue;
+                }
+                insert.setObject(1, UUID.randomUUID());
+                insert.setObject(2, rows.getObject(1));
+                insert.setString(3, TokenDigest.of(token).toHex());
+                insert.setTimestamp(4, Timestamp.from(tokenExpiresAt));
+                insert.setString(5, TokenDigest.of(refreshToken).toHex());
+                insert.setTimestamp(6, Timestamp.from(expiresAt));
+                insert.setTimestamp(7, now);
+                insert.setTimestamp(8, now);
+                insert.addBatch();
+                moved++;
+            }
+            if (moved > 0) {
+                insert.executeBatch();
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * @return exp из payload токена без проверки подписи или null, если его нет
+     */
+    private Instant expiresAt(String token) {
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        if (first < 0 || second < 0) {
+            return null;
+        }
+        try {
+            JsonNode exp = objectMapper.readTree(Base64.getUrlDecoder().decode(token.substring(first + 1, second)))
+                    .get("exp");
+            return exp != null && exp.canConvertToLong() ? Instant.ofEpochSecond(exp.asLong()) : null;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM information_schema.columns"
+                + " WHERE LOWER(table_name) = ? AND LOWER(column_name) = ? AND table_schema = CURRENT_SCHEMA")) {
+            statement.setString(1, table);
+            statement.setString(2, column);
+            return count(statement) > 0;
+        }
+    }
+
+    private static boolean hasForeignKey(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*)"
+                + " FROM information_schema.table_constraints WHERE LOWER(table_name) = ?"
+                + " AND constraint_type = 'FOREIGN KEY' AND table_schema = CURRENT_SCHEMA")) {
+            statement.setString(1, table);
+            return count(statement) > 0;
+        }
+    }
+
+    private static long count(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.arkasha.jwtspringmaven.repository;
+
+import org.arkasha.jwtspringmaven.entity.JwtAuthentication;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface JwtAuthenticationRepository extends JpaRepository<JwtAuthentication, UUID> {
+    Optional<JwtAuthentication> findByRefreshTokenHash(String refreshTokenHash);
+
+    boolean existsByUserIdAndTokenExpiresAtAfter(UUID userId, Instant now);
+
+    /**
+     * Меняет пару токенов сессии, только если refresh-токен еще не был использован
+     *
+     * @return 0, если сессию уже обновил параллельный запрос
+     */
+    @Transactional
+    @Modifying
+    @Query("update JwtAuthentication j set j.tokenHash = :tokenHash, j.tokenExpiresAt = :tokenExpiresAt,"
+            + " j.refreshTokenHash = :refreshTokenHash, j.expiresAt = :expiresAt, j.updatedAt = :updatedAt"
+            + " where j.id = :id and j.refreshTokenHash = :oldRefreshTokenHash")
+    int rotateTokens(@Param("id") UUID id,
+                     @Param("oldRefreshTokenHash") String oldRefreshTokenHash,
+                     @Param("tokenHash") String tokenHash,
+                     @Param("tokenExpiresAt") Instant tokenExpiresAt,
+                     @Param("refreshTokenHash") String refreshTokenHash,
+                     @Param("expiresAt") Instant expiresAt,
+                     @Param("updatedAt") Instant updatedAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from JwtAuthentication j where j.userId = (select u.userId from User u where u.email = :email)")
+    int deleteByUserEmail(@Param("email") String email);
+
+    @Transactional
+    @Modifying
+    @Query("delete from JwtAuthentication j where j.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
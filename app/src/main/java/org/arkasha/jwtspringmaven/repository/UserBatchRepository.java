@@ -0,0 +1,69 @@
+package org.arkasha.jwtspringmaven.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.arkasha.jwtspringmaven.entity.User;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Массовая вставка пользователей через JDBC batch, минуя persistence context Hibernate
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserBatchRepository {
+    private static final String INSERT_SQL = "INSERT INTO users"
+            + " (user_id, first_name, last_name, email, password, token_version) VALUES (?, ?, ?, ?, ?, 0)";
+    private static final String EXISTING_EMAILS_SQL = "SELECT email FROM users WHERE email IN (:emails)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                EXISTING_EMAILS_SQL, Map.of("emails", emails), String.class));
+    }
+
+    /**
+     * Вставляет всю пачку одной транзакцией: при нарушении уникальности email откатывается целиком
+     */
+    @Transactional
+    public void insertAll(List<User> users) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                setUser(ps, users.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return users.size();
+            }
+        });
+    }
+
+    public void insert(User user) {
+        jdbcTemplate.update(INSERT_SQL, ps -> setUser(ps, user));
+    }
+
+    private static void setUser(PreparedStatement ps, User user) throws SQLException {
+        ps.setObject(1, user.getUserId());
+        ps.setString(2, user.getFirstName());
+        ps.setString(3, user.getLastName());
+        ps.setString(4, user.getEmail());
+        ps.setString(5, user.getPassword());
+    }
+}
@@ -0,0 +1,24 @@
+package org.arkasha.jwtspringmaven.repository;
+
+import org.arkasha.jwtspringmaven.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UserRepository extends JpaRepository<User, UUID> {
+    Optional<User> findByUserId(UUID id);
+    Optional<User> findByEmail(String email);
+
+    @Query("select u.tokenVersion from User u where u.email = :email")
+    Optional<Integer> findTokenVersionByEmail(@Param("email") String email);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.email = :email")
+    int incrementTokenVersion(@Param("email") String email);
+}
@@ -0,0 +1,20 @@
+package org.arkasha.jwtspringmaven.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Неизменяемый principal, собранный только из claims проверенного токена.
+ * В отличие от {@link CustomUserDetails} не требует загрузки пользователя из базы.
+ */
+public record JwtPrincipal(UUID userId, String email, List<GrantedAuthority> authorities)
+        implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,89 @@
+package org.arkasha.jwtspringmaven.security;
+
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Общий ограниченный пул для BCrypt.
+ * <p>
+ * Хэширование упирается в процессор, поэтому потоков столько же, сколько ядер
+ * ({@code security.password-hashing.threads}, 0 - по числу ядер), а очередь ограничена
+ * {@code security.password-hashing.queue-capacity}. Переполненная очередь
+ * отклоняет задачу с {@link RejectedExecutionException}.
+ * <p>
+ * Потоки платформенные и при {@code spring.threads.virtual.enabled}: виртуальные потоки BCrypt
+ * по числу ядер заняли бы все несущие потоки, и запросы на виртуальных потоках ждали бы конца всплеска входов.
+ * Платформенные потоки делят ядра с несущими через планировщик ОС.
+ * <p>
+ * Метрики: {@code security.password-hashing.queue} - ожидание задачи в очереди,
+ * {@code security.password-hashing.queue.size} - текущая длина очереди.
+ * Задача выполняется с контекстом вызывающего потока (текущий спан и traceId в MDC).
+ */
+@Component
+public class PasswordHashingExecutor implements Executor {
+    private static final String THREAD_NAME_PREFIX = "password-hashing-";
+
+    private final ThreadPoolExecutor executor;
+    private final Timer queueTimer;
+    private final ContextSnapshotFactory contextSnapshotFactory = ContextSnapshotFactory.builder().build();
+
+    public PasswordHashingExecutor(MeterRegistry meterRegistry,
+                                   @Value("${security.password-hashing.threads:0}") int threads,
+                                   @Value("${security.password-hashing.queue-capacity:1000}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.queueTimer = Timer.builder("security.password-hashing.queue")
+                .description("Time a hashing task waits for a pool thread")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("security.password-hashing.queue.size", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long queuedAt = System.nanoTime();
+        Runnable task = contextSnapshotFactory.captureAll().wrap(command);
+        executor.execute(() -> {
+            queueTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            task.run();
+        });
+    }
+
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.arkasha.jwtspringmaven.security;
+
+import org.arkasha.jwtspringmaven.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Кэш текущей версии токенов пользователя ({@code users.token_version}).
+ * <p>
+ * Токен с версией меньше текущей считается отозванным, поэтому "выйти со всех устройств"
+ * стоит одного инкремента в базе, а не записи в черный список на каждый токен.
+ * Запись живет {@code security.token-version.ttl}, так что изменения с других реплик
+ * подхватываются не позже этого срока.
+ * <p>
+ * Параллельные промахи по одному email объединяются в одну загрузку, при переполнении
+ * вытесняются устаревшие записи, затем десятая часть кэша - как в {@link UserDetailsCache}.
+ */
+@Component
+public class TokenVersionCache {
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final ConcurrentMap<String, Entry> versions = new ConcurrentHashMap<>();
+
+    public TokenVersionCache(UserRepository userRepository,
+                             @Value("${security.token-version.ttl:30s}") Duration ttl,
+                             @Value("${security.token-version.max-size:100000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return true, если версия из токена совпадает с текущей версией пользователя
+     */
+    public boolean isCurrent(String email, int tokenVersion) {
+        long now = System.nanoTime();
+        Entry entry = versions.get(email);
+        if (!isFresh(entry, now)) {
+            entry = load(email, now);
+        }
+        Integer version = await(entry.version());
+        return version != null && version == tokenVersion;
+    }
+
+    public void evict(String email) {
+        versions.remove(email);
+    }
+
+    /**
+     * Параллельные промахи по одному email ждут одну загрузку
+     */
+    private Entry load(String email, long now) {
+        Entry loading = new Entry(new CompletableFuture<>(), now);
+        Entry current = versions.compute(email, (key, existing) -> isFresh(existing, now) ? existing : loading);
+        if (current != loading) {
+            return current;
+        }
+
+        if (versions.size() > maxSize) {
+            evict(now);
+        }
+        try {
+            Integer version = userRepository.findTokenVersionByEmail(email).orElse(null);
+            if (version == null) {
+                // Пользователя нет - не кэшируем, чтобы регистрация была видна сразу
+                versions.remove(email, loading);
+            }
+            loading.version().complete(version);
+        } catch (RuntimeException e) {
+            versions.remove(email, loading);
+            loading.version().completeExceptionally(e);
+        }
+        return loading;
+    }
+
+    private boolean isFresh(Entry entry, long now) {
+        return entry != null
+                && now - entry.loadedAt() < ttlNanos
+                && !entry.version().isCompletedExceptionally();
+    }
+
+    /**
+     * Сначала удаляет устаревшие записи, затем, если места всё ещё нет, - десятую часть кэша
+     */
+    private void evict(long now) {
+        versions.values().removeIf(entry -> now - entry.loadedAt() >= ttlNanos);
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<Entry> iterator = versions.values().iterator();
+        while (versions.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static Integer await(CompletableFuture<Integer> version) {
+        try {
+            return version.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry(CompletableFuture<Integer> version, long loadedAt) {
+    }
+}
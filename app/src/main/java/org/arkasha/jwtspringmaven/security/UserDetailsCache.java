@@ -0,0 +1,140 @@
+package org.arkasha.jwtspringmaven.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограниченный кэш {@link CustomUserDetails} с TTL поверх {@link CustomUserServiceImpl}.
+ * <p>
+ * Параллельные промахи по одному email объединяются в одну загрузку (single-flight):
+ * первый поток загружает пользователя, остальные ждут его результат.
+ * Запись нужно сбрасывать через {@link #evict(String)} при каждом изменении пользователя.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final CustomUserServiceImpl customUserService;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final Timer loadTimer;
+
+    public UserDetailsCache(CustomUserServiceImpl customUserService,
+                            MeterRegistry meterRegistry,
+                            @Value("${security.user-details-cache.ttl:60s}") Duration ttl,
+                            @Value("${security.user-details-cache.max-size:10000}") int maxSize) {
+        this.customUserService = customUserService;
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+
+        this.loadTimer = Timer.builder("security.user-details.load")
+                .description("Time to load user details from the database")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        FunctionCounter.builder("security.user-details.cache.hits", hits, LongAdder::sum)
+                .register(meterRegistry);
+        FunctionCounter.builder("security.user-details.cache.misses", misses, LongAdder::sum)
+                .register(meterRegistry);
+        FunctionCounter.builder("security.user-details.cache.coalesced", coalesced, LongAdder::sum)
+                .description("Misses that waited for a load already in flight")
+                .register(meterRegistry);
+        Gauge.builder("security.user-details.cache.hit-ratio", this, UserDetailsCache::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("security.user-details.cache.size", entries, Map::size)
+                .register(meterRegistry);
+    }
+
+    public CustomUserDetails loadUserByUsername(String email) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(email);
+        if (isFresh(entry, now)) {
+            hits.increment();
+            return await(entry.details());
+        }
+
+        Entry loading = new Entry(new CompletableFuture<>(), now);
+        Entry current = entries.compute(email, (key, existing) -> isFresh(existing, now) ? existing : loading);
+        if (current != loading) {
+            coalesced.increment();
+            return await(current.details());
+        }
+
+        misses.increment();
+        if (entries.size() > maxSize) {
+            evict(now);
+        }
+        try {
+            long started = System.nanoTime();
+            CustomUserDetails details = customUserService.loadUserByUsername(email);
+            loadTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            loading.details().complete(details);
+            return details;
+        } catch (RuntimeException e) {
+            // Ошибки не кэшируем, но ждущие потоки получают ту же ошибку
+            entries.remove(email, loading);
+            loading.details().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void evict(String email) {
+        entries.remove(email);
+    }
+
+    private boolean isFresh(Entry entry, long now) {
+        return entry != null
+                && now - entry.loadedAt() < ttlNanos
+                && !entry.details().isCompletedExceptionally();
+    }
+
+    private double hitRatio() {
+        long hitCount = hits.sum() + coalesced.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Сначала удаляет устаревшие записи, затем, если места всё ещё нет, - десятую часть кэша
+     */
+    private void evict(long now) {
+        entries.values().removeIf(entry -> now - entry.loadedAt() >= ttlNanos);
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static CustomUserDetails await(CompletableFuture<CustomUserDetails> details) {
+        try {
+            return details.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry(CompletableFuture<CustomUserDetails> details, long loadedAt) {
+    }
+}
@@ -0,0 +1,80 @@
+package org.arkasha.jwtspringmaven.security.jwt;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Аутентификация шлюза на {@code POST /auth/introspect} (RFC 7662, раздел 2.1).
+ * <p>
+ * Шлюз передает {@code Authorization: Basic} с {@code jwt.introspection.client-id}
+ * и {@code jwt.introspection.client-secret} и получает полномочие {@link #INTROSPECTION_AUTHORITY}.
+ * Секрет сравнивается за постоянное время. Без заданного секрета интроспекция закрыта для всех.
+ */
+@Component
+public class IntrospectionClientFilter extends OncePerRequestFilter {
+    public static final String INTROSPECTION_PATH = "/auth/introspect";
+    public static final String INTROSPECTION_AUTHORITY = "TOKEN_INTROSPECTION";
+
+    private static final RequestMatcher INTROSPECTION_REQUEST =
+            PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST, INTROSPECTION_PATH);
+
+    private final String clientId;
+    private final byte[] expectedCredentials;
+
+    public IntrospectionClientFilter(@Value("${jwt.introspection.client-id:gateway}") String clientId,
+                                     @Value("${jwt.introspection.client-secret:}") String clientSecret) {
+        this.clientId = clientId;
+        this.expectedCredentials = clientSecret.isEmpty()
+                ? null
+                : (clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return expectedCredentials == null || !INTROSPECTION_REQUEST.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        byte[] credentials = getBasicCredentials(request);
+        if (credentials != null && MessageDigest.isEqual(expectedCredentials, credentials)) {
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    clientId, null, List.of(new SimpleGrantedAuthority(INTROSPECTION_AUTHORITY)));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static byte[] getBasicCredentials(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith("Basic ")) {
+            return null;
+        }
+        try {
+            return Base64.getDecoder().decode(header.substring(6).trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.arkasha.jwtspringmaven.security.jwt;
+
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограниченный пул для проверки подписей в {@link TokenIntrospector}.
+ * <p>
+ * Отдельно от общего ForkJoinPool: большие пачки не занимают его целиком и не ждут чужих задач.
+ * Потоков {@code jwt.introspection.threads} (0 - по числу ядер), очередь ограничена
+ * {@code jwt.introspection.queue-capacity}; при переполнении задача отклоняется
+ * с {@link RejectedExecutionException} (503 с Retry-After).
+ * <p>
+ * Метрика {@code jwt.introspection.queue.size} - текущая длина очереди.
+ * Задача выполняется с контекстом вызывающего потока (текущий спан и traceId в MDC).
+ */
+@Component
+public class IntrospectionExecutor implements Executor {
+    private static final String THREAD_NAME_PREFIX = "introspection-";
+
+    private final ThreadPoolExecutor executor;
+    private final ContextSnapshotFactory contextSnapshotFactory = ContextSnapshotFactory.builder().build();
+
+    public IntrospectionExecutor(MeterRegistry meterRegistry,
+                                 @Value("${jwt.introspection.threads:0}") int threads,
+                                 @Value("${jwt.introspection.queue-capacity:256}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new IntrospectionThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("jwt.introspection.queue.size", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(contextSnapshotFactory.captureAll().wrap(command));
+    }
+
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class IntrospectionThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.arkasha.jwtspringmaven.security.jwt;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.arkasha.jwtspringmaven.security.CustomUserDetails;
+import org.arkasha.jwtspringmaven.security.JwtPrincipal;
+import org.arkasha.jwtspringmaven.security.TokenVersionCache;
+import org.arkasha.jwtspringmaven.security.UserDetailsCache;
+import org.arkasha.jwtspringmaven.tracing.PhaseObservation;
+import org.arkasha.tokenverifier.VerifiedToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Аутентификация по Bearer-токену.
+ * <p>
+ * С {@code jwt.stateless-principal.enabled} principal строится из claims {@code uid} и {@code roles}
+ * без загрузки пользователя. Версия токена проверяется и в этом режиме - на ней держится
+ * "выйти со всех устройств": {@link TokenVersionCache} ходит в базу не чаще раза за
+ * {@code security.token-version.ttl} на пользователя, параллельные промахи объединяются.
+ * <p>
+ * Метрики: {@code security.jwt-filter} - собственное время фильтра без остальной цепочки
+ * с тегом {@code result} (anonymous, rejected, authenticated), {@code security.jwt-filter.user-lookup} -
+ * проверка версии токена и загрузка пользователя с тегом {@code step}.
+ * Те же шаги пишутся спанами {@code jwt-filter.*} ({@link PhaseObservation}).
+ */
+@Component
+public class JwtFilter extends OncePerRequestFilter {
+    private final JwtService jwtService;
+    private final UserDetailsCache userDetailsCache;
+    private final TokenVersionCache tokenVersionCache;
+    // Principal строится из claims токена, без загрузки пользователя
+    private final boolean statelessPrincipal;
+    private final ObservationRegistry observationRegistry;
+
+    private final Timer anonymousTimer;
+    private final Timer rejectedTimer;
+    private final Timer authenticatedTimer;
+    private final Timer tokenVersionLookupTimer;
+    private final Timer userDetailsLookupTimer;
+
+    public JwtFilter(JwtService jwtService, UserDetailsCache userDetailsCache,
+                     TokenVersionCache tokenVersionCache,
+                     MeterRegistry meterRegistry,
+                     ObservationRegistry observationRegistry,
+                     @Value("${jwt.stateless-principal.enabled:false}") boolean statelessPrincipal) {
+        this.jwtService = jwtService;
+        this.userDetailsCache = userDetailsCache;
+        this.tokenVersionCache = tokenVersionCache;
+        this.statelessPrincipal = statelessPrincipal;
+        this.observationRegistry = observationRegistry;
+
+        this.anonymousTimer = filterTimer(meterRegistry, "anonymous");
+        this.rejectedTimer = filterTimer(meterRegistry, "rejected");
+        this.authenticatedTimer = filterTimer(meterRegistry, "authenticated");
+        this.tokenVersionLookupTimer = userLookupTimer(meterRegistry, "token-version");
+        this.userDetailsLookupTimer = userLookupTimer(meterRegistry, "user-details");
+    }
+
+    private static Timer filterTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("security.jwt-filter")
+                .description("Time spent in JwtFilter before the rest of the filter chain")
+                .tag("result", result)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer userLookupTimer(MeterRegistry meterRegistry, String step) {
+        return Timer.builder("security.jwt-filter.user-lookup")
+                .description("Token version check and principal lookup, cache hits included")
+                .tag("step", step)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        Timer filterTimer = authenticate(request);
+        filterTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * @return таймер с исходом проверки
+     */
+    private Timer authenticate(HttpServletRequest request) {
+        String token = getTokenFromRequest(request);
+        if (token == null) {
+            return anonymousTimer;
+        }
+
+        VerifiedToken verifiedToken = PhaseObservation.of("jwt-filter.validate", observationRegistry)
+                .observe(() -> jwtService.verifyToken(token));
+        if (!verifiedToken.isValid()) {
+            return rejectedTimer;
+        }
+
+        long start = System.nanoTime();
+        boolean current = PhaseObservation.of("jwt-filter.token-version", observationRegistry)
+                .observe(() -> tokenVersionCache.isCurrent(verifiedToken.subject(), verifiedToken.tokenVersion()));
+        tokenVersionLookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!current) {
+            return rejectedTimer;
+        }
+
+        if (statelessPrincipal && verifiedToken.userId() != null) {
+            setJwtPrincipalToSecurityContextHolder(verifiedToken);
+        } else {
+            setCustomUserDetailsToSecurityContextHolder(verifiedToken.subject());
+        }
+        return authenticatedTimer;
+    }
+
+    private void setCustomUserDetailsToSecurityContextHolder(String email) {
+        long start = System.nanoTime();
+        CustomUserDetails customUserDetails = PhaseObservation.of("jwt-filter.user-details", observationRegistry)
+                .observe(() -> userDetailsCache.loadUserByUsername(email));
+        userDetailsLookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                customUserDetails, null, customUserDetails.getAuthorities());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    private void setJwtPrincipalToSecurityContextHolder(VerifiedToken verifiedToken) {
+        List<GrantedAuthority> authorities = verifiedToken.authorities().stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+        JwtPrincipal principal = new JwtPrincipal(verifiedToken.userId(), verifiedToken.subject(), authorities);
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                principal, null, authorities);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    // Пакетная видимость - для JMH-бенчмарка в модуле benchmarks
+    static String getTokenFromRequest(HttpServletRequest request) {
+        String bearerToken = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+
+
+}
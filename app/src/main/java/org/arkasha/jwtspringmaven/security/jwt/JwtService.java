@@ -0,0 +1,286 @@
+package org.arkasha.jwtspringmaven.security.jwt;
+
+import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.arkasha.jwtspringmaven.audit.AuditEvent;
+import org.arkasha.jwtspringmaven.audit.AuditLog;
+import org.arkasha.jwtspringmaven.dto.JwtAuthenticationDto;
+import org.arkasha.jwtspringmaven.security.revocation.RevocationStore;
+import org.arkasha.jwtspringmaven.security.signing.SigningKey;
+import org.arkasha.jwtspringmaven.security.signing.SigningKeyRing;
+import org.arkasha.jwtspringmaven.tracing.PhaseObservation;
+import org.arkasha.tokenverifier.EcTokenVerifier;
+import org.arkasha.tokenverifier.HmacTokenVerifier;
+import org.arkasha.tokenverifier.TokenDigest;
+import org.arkasha.tokenverifier.TokenStatus;
+import org.arkasha.tokenverifier.TokenVerifier;
+import org.arkasha.tokenverifier.VerifiedToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка JWT.
+ * <p>
+ * Проверка не бросает исключений на отказах: результат - {@link TokenStatus} в {@link VerifiedToken}.
+ * По умолчанию токены подписываются общим секретом {@code jwt-secret} и проверяются {@link HmacTokenVerifier};
+ * при {@code jwt.signing.mode=ec} - ключом ES256 из {@link SigningKeyRing} с {@code kid} в заголовке
+ * и проверяются {@link EcTokenVerifier}. Смена режима делает недействительными уже выданные токены. Отказы пишутся в лог сводкой раз в
+ * {@link #REJECTED_LOG_INTERVAL}, без стектрейсов.
+ * <p>
+ * Метрики: {@code jwt.validation} - время проверки с тегом {@code outcome}
+ * (valid, expired, malformed, bad-signature, revoked),
+ * {@code jwt.tokens.issued} - выпущенные токены с тегом {@code type}.
+ * Подпись и отзыв токенов пишутся спанами {@code jwt.*} ({@link PhaseObservation}),
+ * каждый отзыв - событием {@link AuditLog}.
+ */
+@Component
+public class JwtService {
+
+    private static final Logger LOGGER = LogManager.getLogger(JwtService.class);
+
+    public static final Duration ACCESS_TOKEN_VALIDITY = Duration.ofMinutes(5);
+    public static final Duration REFRESH_TOKEN_VALIDITY = Duration.ofDays(1);
+    public static final String TOKEN_VERSION_CLAIM = TokenVerifier.TOKEN_VERSION_CLAIM;
+    public static final String USER_ID_CLAIM = TokenVerifier.USER_ID_CLAIM;
+    public static final String AUTHORITIES_CLAIM = TokenVerifier.AUTHORITIES_CLAIM;
+    static final Duration REJECTED_LOG_INTERVAL = Duration.ofSeconds(10);
+
+    @Value("${jwt-secret}")
+    private String jwtSecret;
+
+    // uid и roles нужны только для principal из claims; без него токен их не несет
+    @Value("${jwt.stateless-principal.enabled:false}")
+    private boolean principalClaims;
+
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    // Ключ и парсер создаются один раз: JwtParser неизменяемый и потокобезопасный
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    private TokenVerifier tokenVerifier;
+    private final SigningKeyRing signingKeyRing;
+    private final RejectedTokenLog rejectedTokenLog = new RejectedTokenLog(REJECTED_LOG_INTERVAL);
+
+    // Черный список токенов
+    private final RevocationStore revocationStore;
+    private final ObservationRegistry observationRegistry;
+    private final AuditLog auditLog;
+
+    private final Map<TokenStatus, Timer> validationTimers = new EnumMap<>(TokenStatus.class);
+    private final Counter accessTokensIssued;
+    private final Counter refreshTokensIssued;
+
+    public JwtService(VerifiedTokenCache verifiedTokenCache, RevocationStore revocationStore,
+                      SigningKeyRing signingKeyRing, MeterRegistry meterRegistry,
+                      ObservationRegistry observationRegistry, AuditLog auditLog) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.revocationStore = revocationStore;
+        this.signingKeyRing = signingKeyRing;
+        this.observationRegistry = observationRegistry;
+        this.auditLog = auditLog;
+        for (TokenStatus status : TokenStatus.values()) {
+            validationTimers.put(status, validationTimer(meterRegistry,
+                    status.name().toLowerCase(Locale.ROOT).replace('_', '-')));
+        }
+        this.accessTokensIssued = issuedCounter(meterRegistry, "access");
+        this.refreshTokensIssued = issuedCounter(meterRegistry, "refresh");
+    }
+
+    private static Timer validationTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("jwt.validation")
+                .description("Token validation time including revocation check and verified-token cache")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Counter issuedCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("jwt.tokens.issued")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        if (signingKeyRing.isEnabled()) {
+            tokenVerifier = new EcTokenVerifier(signingKeyRing::publicKeys);
+            jwtParser = Jwts.parser()
+                    .keyLocator(header -> header instanceof ProtectedHeader protectedHeader
+                            ? signingKeyRing.publicKeys().get(protectedHeader.getKeyId())
+                            : null)
+                    .build();
+            return;
+        }
+        byte[] secret = Decoders.BASE64.decode(jwtSecret);
+        signingKey = Keys.hmacShaKeyFor(secret);
+        tokenVerifier = new HmacTokenVerifier(secret);
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
+    public JwtAuthenticationDto generateAuthToken(TokenSubject subject) {
+        JwtAuthenticationDto jwtAuthenticationDto = new JwtAuthenticationDto();
+        jwtAuthenticationDto.setToken(generateJwtToken(subject));
+        jwtAuthenticationDto.setRefreshToken(generateRefreshToken(subject));
+        return jwtAuthenticationDto;
+    }
+
+    /**
+     * Подписывает новую пару токенов для ротации сессии. Сессия хранит отпечатки новой пары, поэтому подпись
+     * нужна до ротации, но выпуск не учитывается, а старая пара не отзывается до {@link #completeRefresh}.
+     */
+    public JwtAuthenticationDto signRefreshedToken(TokenSubject subject) {
+        JwtAuthenticationDto jwtAuthenticationDto = new JwtAuthenticationDto();
+        jwtAuthenticationDto.setToken(signAccessToken(subject));
+        jwtAuthenticationDto.setRefreshToken(signRefreshToken(subject));
+        return jwtAuthenticationDto;
+    }
+
+    /**
+     * Вызывается после успешной ротации сессии: отзывает старую пару и учитывает выпуск новой.
+     * Точный exp старого access-токена неизвестен, поэтому он отзывается на максимальный срок его жизни.
+     */
+    public void completeRefresh(TokenSubject subject, String oldRefreshToken, TokenDigest oldToken) {
+        accessTokensIssued.increment();
+        refreshTokensIssued.increment();
+        if (oldRefreshToken != null && !oldRefreshToken.isEmpty()) {
+            PhaseObservation.of("jwt.revoke-refresh-token", observationRegistry)
+                    .observe(() -> addToBlacklist(oldRefreshToken, subject));
+        }
+        if (oldToken != null) {
+            PhaseObservation.of("jwt.revoke-access-token", observationRegistry)
+                    .observe(() -> revokeDigest(oldToken, Instant.now().plus(ACCESS_TOKEN_VALIDITY), subject));
+        }
+    }
+
+    public String getEmailFromToken(String token) {
+        return jwtParser.parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
+    }
+
+    public boolean validateJwtToken(String token) {
+        return verifyToken(token).isValid();
+    }
+
+    /**
+     * Проверяет подпись и срок действия за один разбор токена
+     */
+    public VerifiedToken verifyToken(String token) {
+        long start = System.nanoTime();
+        TokenDigest digest = TokenDigest.of(token);
+        // Проверяем, находится ли токен в черном списке
+        VerifiedToken verifiedToken = revocationStore.isRevoked(digest)
+                ? VerifiedToken.rejected(TokenStatus.REVOKED)
+                : verifiedTokenCache.getOrVerify(digest, token, this::parseToken);
+
+        TokenStatus status = verifiedToken.status();
+        validationTimers.get(status).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (status != TokenStatus.VALID) {
+            rejectedTokenLog.record(status);
+        }
+        return verifiedToken;
+    }
+
+    private VerifiedToken parseToken(String token) {
+        return tokenVerifier.verify(token, Instant.now());
+    }
+
+    /**
+     * Добавляет токен в черный список до момента его истечения
+     */
+    private void addToBlacklist(String token, TokenSubject subject) {
+        VerifiedToken verifiedToken = parseToken(token);
+        // Истекший или поддельный токен и так не пройдет проверку
+        if (!verifiedToken.isValid()) {
+            return;
+        }
+
+        Instant expiresAt = verifiedToken.expiresAt() != null
+                ? verifiedToken.expiresAt()
+                : Instant.now().plus(REFRESH_TOKEN_VALIDITY);
+        revokeDigest(TokenDigest.of(token), expiresAt, subject);
+    }
+
+    private void revokeDigest(TokenDigest digest, Instant expiresAt, TokenSubject subject) {
+        revocationStore.revoke(digest, expiresAt);
+        verifiedTokenCache.invalidate(digest);
+        auditLog.record(AuditEvent.tokenRevoked(subject.userId(), subject.email(), digest));
+        LOGGER.debug("Token added to blacklist. Current blacklist size: {}", revocationStore.size());
+    }
+
+    public String generateJwtToken(TokenSubject subject) {
+        accessTokensIssued.increment();
+        return signAccessToken(subject);
+    }
+
+    public String generateRefreshToken(TokenSubject subject) {
+        refreshTokensIssued.increment();
+        return signRefreshToken(subject);
+    }
+
+    private String signAccessToken(TokenSubject subject) {
+        return PhaseObservation.of("jwt.sign-access-token", observationRegistry)
+                .observe(() -> generateToken(subject, ACCESS_TOKEN_VALIDITY));
+    }
+
+    private String signRefreshToken(TokenSubject subject) {
+        return PhaseObservation.of("jwt.sign-refresh-token", observationRegistry)
+                .observe(() -> generateToken(subject, REFRESH_TOKEN_VALIDITY));
+    }
+
+    private String generateToken(TokenSubject subject, Duration validity) {
+        Date expirationDate = Date.from(
+                LocalDateTime.now()
+                        .plus(validity)
+                        .atZone(ZoneId.systemDefault())
+                        .toInstant()
+        );
+
+        // jti делает токены уникальными, даже если они выпущены в одну секунду
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(subject.email())
+                .claim(TOKEN_VERSION_CLAIM, subject.tokenVersion());
+        if (principalClaims && subject.userId() != null) {
+            builder.claim(USER_ID_CLAIM, subject.userId().toString());
+        }
+        if (principalClaims && !subject.authorities().isEmpty()) {
+            builder.claim(AUTHORITIES_CLAIM, subject.authorities());
+        }
+        builder.expiration(expirationDate);
+        if (signingKeyRing.isEnabled()) {
+            SigningKey key = signingKeyRing.current();
+            builder.header().keyId(key.keyId()).and()
+                    .signWith(key.privateKey(), Jwts.SIG.ES256);
+        }
+        else {
+            builder.signWith(signingKey);
+        }
+        return builder.compact();
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package org.arkasha.jwtspringmaven.security.jwt;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.arkasha.tokenverifier.TokenStatus;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сводка отклоненных токенов в лог: не чаще одной строки WARN за {@code interval},
+ * со счетчиками по каждому {@link TokenStatus}. Первый отказ после затишья пишется сразу,
+ * остальные копятся до следующего отказа после конца интервала. Стектрейсы не пишутся.
+ */
+final class RejectedTokenLog {
+    private static final Logger LOGGER = LogManager.getLogger(JwtService.class);
+
+    private final long intervalNanos;
+    private final Map<TokenStatus, LongAdder> counts = new EnumMap<>(TokenStatus.class);
+    private final AtomicLong nextReportAt;
+
+    RejectedTokenLog(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+        this.nextReportAt = new AtomicLong(System.nanoTime());
+        for (TokenStatus status : TokenStatus.values()) {
+            counts.put(status, new LongAdder());
+        }
+    }
+
+    void record(TokenStatus status) {
+        counts.get(status).increment();
+        long now = System.nanoTime();
+        long next = nextReportAt.get();
+        if (now - next >= 0 && nextReportAt.compareAndSet(next, now + intervalNanos)) {
+            report();
+        }
+    }
+
+    private void report() {
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<TokenStatus, LongAdder> entry : counts.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count > 0) {
+                summary.append(summary.isEmpty() ? "" : ", ")
+                        .append(entry.getKey().name().toLowerCase(Locale.ROOT))
+                        .append('=')
+                        .append(count);
+            }
+        }
+        if (!summary.isEmpty()) {
+            LOGGER.warn("Rejected tokens (at most one summary per {}s): {}",
+                    intervalNanos / 1_000_000_000L, summary);
+        }
+    }
+}
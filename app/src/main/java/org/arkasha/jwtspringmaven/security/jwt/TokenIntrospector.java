@@ -0,0 +1,114 @@
+package org.arkasha.jwtspringmaven.security.jwt;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.arkasha.jwtspringmaven.dto.TokenIntrospectionDto;
+import org.arkasha.jwtspringmaven.security.TokenVersionCache;
+import org.arkasha.jwtspringmaven.tracing.PhaseObservation;
+import org.arkasha.tokenverifier.TokenStatus;
+import org.arkasha.tokenverifier.VerifiedToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Проверка пачки токенов для шлюза: тот же результат, что дал бы {@link JwtFilter} на каждый токен.
+ * <p>
+ * Подписи проверяются параллельно: пачка делится на части не меньше {@link #PARALLEL_THRESHOLD} токенов,
+ * первую проверяет вызывающий поток, остальные - {@link IntrospectionExecutor}. Черный список смотрится
+ * один раз на токен внутри {@link JwtService#verifyToken}. Версия токенов пользователя сверяется потом
+ * в вызывающем потоке: промах {@link TokenVersionCache} идет в базу, а пул только для процессорной работы.
+ * Меньшие пачки проверяются последовательно - HMAC дешевле раздачи задач.
+ * <p>
+ * Метрика {@code jwt.introspection.batch-size} - размер пачек.
+ */
+@Component
+public class TokenIntrospector {
+    static final int PARALLEL_THRESHOLD = 32;
+
+    private final JwtService jwtService;
+    private final TokenVersionCache tokenVersionCache;
+    private final IntrospectionExecutor introspectionExecutor;
+    private final ObservationRegistry observationRegistry;
+    private final DistributionSummary batchSize;
+    private final int maxBatchSize;
+
+    public TokenIntrospector(JwtService jwtService, TokenVersionCache tokenVersionCache,
+                             IntrospectionExecutor introspectionExecutor, MeterRegistry meterRegistry, ObservationRegistry observationRegistry,
+                             @Value("${jwt.introspection.max-batch-size:1000}") int maxBatchSize) {
+        this.jwtService = jwtService;
+        this.tokenVersionCache = tokenVersionCache;
+        this.introspectionExecutor = introspectionExecutor;
+        this.observationRegistry = observationRegistry;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSize = DistributionSummary.builder("jwt.introspection.batch-size")
+                .description("Tokens per introspection request")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return результат для каждого токена в порядке запроса
+     */
+    public List<TokenIntrospectionDto> introspect(List<String> tokens) {
+        if (tokens.size() > maxBatchSize) {
+            throw new IllegalArgumentException(String.format("Batch size %d exceeds limit %d",
+                    tokens.size(), maxBatchSize));
+        }
+        batchSize.record(tokens.size());
+
+        VerifiedToken[] verified = new VerifiedToken[tokens.size()];
+        PhaseObservation.of("jwt.introspect-signatures", observationRegistry)
+                .observe(() -> verifyAll(tokens, verified));
+
+        List<TokenIntrospectionDto> results = new ArrayList<>(verified.length);
+        for (VerifiedToken verifiedToken : verified) {
+            results.add(toResult(verifiedToken));
+        }
+        return results;
+    }
+
+    private void verifyAll(List<String> tokens, VerifiedToken[] verified) {
+        int parts = Math.min(introspectionExecutor.getPoolSize(), verified.length / PARALLEL_THRESHOLD);
+        if (parts <= 1) {
+            verifyRange(tokens, verified, 0, verified.length);
+            return;
+        }
+        CompletableFuture<?>[] submitted = new CompletableFuture<?>[parts - 1];
+        for (int part = 1; part < parts; part++) {
+            int from = verified.length * part / parts;
+            int to = verified.length * (part + 1) / parts;
+            submitted[part - 1] = CompletableFuture.runAsync(
+                    () -> verifyRange(tokens, verified, from, to), introspectionExecutor);
+        }
+        verifyRange(tokens, verified, 0, verified.length / parts);
+        CompletableFuture.allOf(submitted).join();
+    }
+
+    private void verifyRange(List<String> tokens, VerifiedToken[] verified, int from, int to) {
+        for (int i = from; i < to; i++) {
+            verified[i] = verify(tokens.get(i));
+        }
+    }
+
+    private VerifiedToken verify(String token) {
+        return token == null || token.isEmpty()
+                ? VerifiedToken.rejected(TokenStatus.MALFORMED)
+                : jwtService.verifyToken(token);
+    }
+
+    private TokenIntrospectionDto toResult(VerifiedToken verifiedToken) {
+        if (!verifiedToken.isValid()) {
+            return new TokenIntrospectionDto(false, null, null, verifiedToken.status() == TokenStatus.REVOKED);
+        }
+        // Устаревшая версия - сессии пользователя отозваны целиком
+        if (!tokenVersionCache.isCurrent(verifiedToken.subject(), verifiedToken.tokenVersion())) {
+            return new TokenIntrospectionDto(false, null, null, true);
+        }
+        Long exp = verifiedToken.expiresAt() != null ? verifiedToken.expiresAt().getEpochSecond() : null;
+        return new TokenIntrospectionDto(true, verifiedToken.subject(), exp, false);
+    }
+}
@@ -0,0 +1,12 @@
+package org.arkasha.jwtspringmaven.security.jwt;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Данные пользователя, которые попадают в выпускаемый токен.
+ * {@code tokenVersion} - поколение токенов пользователя, см. {@code TokenVersionCache};
+ * {@code userId} и {@code authorities} позволяют собрать principal без запроса в базу.
+ */
+public record TokenSubject(UUID userId, String email, int tokenVersion, List<String> authorities) {
+}
@@ -0,0 +1,156 @@
+package org.arkasha.jwtspringmaven.security.jwt;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.NonNull;
+import org.arkasha.tokenverifier.TokenDigest;
+import org.arkasha.tokenverifier.VerifiedToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Кэш успешно проверенных токенов, ключ - {@link TokenDigest}.
+ * Запись живет до exp самого токена, размер кэша ограничен: место под запись резервируется
+ * счетчиком до вставки, поэтому конкурентные промахи не переполняют кэш.
+ * Черный список проверяется до обращения к кэшу, поэтому отзыв токена действует сразу.
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final ConcurrentMap<TokenDigest, VerifiedToken> entries = new ConcurrentHashMap<>();
+    // Число записей в entries вместе с зарезервированными под вставку местами
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedTokenCache(@Value("${jwt.verified-cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.verified-cache.max-size:10000}") int maxSize) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Возвращает закэшированный результат или проверяет токен и кэширует успешный результат
+     */
+    public VerifiedToken getOrVerify(TokenDigest digest, String token, Function<String, VerifiedToken> verifier) {
+        if (!enabled) {
+            return verifier.apply(token);
+        }
+
+        VerifiedToken cached = entries.get(digest);
+        if (cached != null) {
+            if (cached.expiresAt().isAfter(Instant.now())) {
+                hits.increment();
+                return cached;
+            }
+            if (entries.remove(digest, cached)) {
+                reserved.decrementAndGet();
+            }
+        }
+
+        misses.increment();
+        VerifiedToken verified = verifier.apply(token);
+        if (verified.isValid() && verified.expiresAt() != null && reserveSlot()) {
+            if (entries.put(digest, verified) != null) {
+                // Запись уже была - место не понадобилось
+                reserved.decrementAndGet();
+            }
+        }
+        return verified;
+    }
+
+    public void invalidate(TokenDigest digest) {
+        if (entries.remove(digest) != null) {
+            reserved.decrementAndGet();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return {@code false}, если места нет и после вытеснения - результат тогда не кэшируется
+     */
+    private boolean reserveSlot() {
+        while (true) {
+            int current = reserved.get();
+            if (current >= maxSize) {
+                evict();
+                current = reserved.get();
+                if (current >= maxSize) {
+                    return false;
+                }
+            }
+            if (reserved.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Сначала удаляет истекшие записи, затем, если места всё ещё нет, - десятую часть кэша.
+     * Вытесняет один поток, остальные промахи в это время ждут на мониторе.
+     */
+    private synchronized void evict() {
+        if (reserved.get() < maxSize) {
+            return;
+        }
+        Instant now = Instant.now();
+        int removed = 0;
+        for (Map.Entry<TokenDigest, VerifiedToken> entry : entries.entrySet()) {
+            if (!entry.getValue().expiresAt().isAfter(now) && entries.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        reserved.addAndGet(-removed);
+
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<Map.Entry<TokenDigest, VerifiedToken>> iterator = entries.entrySet().iterator();
+        while (reserved.get() > target && iterator.hasNext()) {
+            Map.Entry<TokenDigest, VerifiedToken> entry = iterator.next();
+            if (entries.remove(entry.getKey(), entry.getValue())) {
+                reserved.decrementAndGet();
+                removed++;
+            }
+        }
+        evictions.add(removed);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("jwt.verified.cache.hits", hits, LongAdder::sum)
+                .description("Tokens served from the verified-token cache")
+                .register(registry);
+        FunctionCounter.builder("jwt.verified.cache.misses", misses, LongAdder::sum)
+                .description("Tokens that required a full signature check")
+                .register(registry);
+        FunctionCounter.builder("jwt.verified.cache.evictions", evictions, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("jwt.verified.cache.size", entries, Map::size)
+                .register(registry);
+    }
+}
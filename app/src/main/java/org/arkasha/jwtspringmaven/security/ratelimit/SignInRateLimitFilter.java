@@ -0,0 +1,199 @@
+package org.arkasha.jwtspringmaven.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.arkasha.jwtspringmaven.dto.UserCredentialsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Допуск к {@code POST /auth/sign-in}: token bucket на адрес клиента и на email.
+ * <p>
+ * Отказ (429 с Retry-After) отдается до поиска пользователя и BCrypt. Тело запроса читается
+ * один раз и подменяется копией, чтобы контроллер прочитал его снова.
+ * Адрес берется из {@link HttpServletRequest#getRemoteAddr()}: за прокси нужен
+ * {@code server.forward-headers-strategy}.
+ */
+@Component
+public class SignInRateLimitFilter extends OncePerRequestFilter {
+    private static final String SIGN_IN_PATH = "/auth/sign-in";
+    private static final int MAX_BODY_SIZE = 4096;
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final TokenBucketTable addressBuckets;
+    private final TokenBucketTable emailBuckets;
+
+    private final LongAdder rejectedByAddress = new LongAdder();
+    private final LongAdder rejectedByEmail = new LongAdder();
+
+    public SignInRateLimitFilter(ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${security.sign-in-rate-limit.enabled:true}") boolean enabled,
+                                 @Value("${security.sign-in-rate-limit.slots:65536}") int slots,
+                                 @Value("${security.sign-in-rate-limit.address.capacity:100}") int addressCapacity,
+                                 @Value("${security.sign-in-rate-limit.address.refill-interval:100ms}") Duration addressRefill,
+                                 @Value("${security.sign-in-rate-limit.email.capacity:10}") int emailCapacity,
+                                 @Value("${security.sign-in-rate-limit.email.refill-interval:6s}") Duration emailRefill) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        long now = System.currentTimeMillis();
+        this.addressBuckets = new TokenBucketTable(slots, addressCapacity, addressRefill, now);
+        this.emailBuckets = new TokenBucketTable(slots, emailCapacity, emailRefill, now);
+
+        FunctionCounter.builder("security.sign-in.rejected", rejectedByAddress, LongAdder::sum)
+                .description("Sign-in attempts rejected by admission control")
+                .tag("limit", "address")
+                .register(meterRegistry);
+        FunctionCounter.builder("security.sign-in.rejected", rejectedByEmail, LongAdder::sum)
+                .description("Sign-in attempts rejected by admission control")
+                .tag("limit", "email")
+                .register(meterRegistry);
+        FunctionCounter.builder("security.sign-in.evicted", addressBuckets, TokenBucketTable::getEvictions)
+                .description("Partly drained sign-in buckets evicted by other keys")
+                .tag("limit", "address")
+                .register(meterRegistry);
+        FunctionCounter.builder("security.sign-in.evicted", emailBuckets, TokenBucketTable::getEvictions)
+                .description("Partly drained sign-in buckets evicted by other keys")
+                .tag("limit", "email")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled
+                || !HttpMethod.POST.matches(request.getMethod())
+                || !SIGN_IN_PATH.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        long wait = addressBuckets.tryAcquire(request.getRemoteAddr(), now);
+        if (wait > 0) {
+            rejectedByAddress.increment();
+            reject(response, wait);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_SIZE + 1);
+        if (body.length > MAX_BODY_SIZE) {
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+
+        String email = readEmail(body);
+        if (email != null) {
+            wait = emailBuckets.tryAcquire(email, now);
+            if (wait > 0) {
+                rejectedByEmail.increment();
+                reject(response, wait);
+                return;
+            }
+        }
+
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    // Некорректное тело пропускается дальше, ответ на него дает контроллер
+    private String readEmail(byte[] body) {
+        try {
+            String email = objectMapper.readValue(body, UserCredentialsDto.class).getEmail();
+            return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long waitMillis) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString((waitMillis + 999) / 1000));
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Тело уже в памяти: все данные доступны сразу
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    }
+                    catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.arkasha.jwtspringmaven.security.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Таблица token bucket фиксированного размера без блокировок.
+ * <p>
+ * Bucket хранит 64-битный отпечаток ключа и "теоретическое время прихода" (GCRA) в миллисекундах
+ * от {@code originMillis}. Такой bucket эквивалентен token bucket с емкостью {@code capacity}
+ * и пополнением на один токен за {@code refillInterval}, а обновляется одним CAS слота.
+ * <p>
+ * Ключ ищется в {@link #PROBES} соседних слотах, начиная со слота своего хэша. Чужие ключи свой bucket
+ * не делят: новый ключ занимает пустой слот или слот с самым наполненным чужим bucket - полностью
+ * пополненный bucket ничего не помнит и вытесняется без потерь. Поэтому перебор случайных email
+ * не исчерпывает лимит настоящих пользователей, а лишь может вытеснить их bucket, если вся окрестность
+ * занята частично израсходованными bucket; такие вытеснения считаются в {@link #getEvictions()}.
+ * Хэш посолен случайным seed, поэтому подобрать ключи в нужный слот заранее нельзя.
+ * Время передается в миллисекундах epoch, чтобы класс не зависел от часов.
+ */
+public final class TokenBucketTable {
+    static final int PROBES = 4;
+
+    private final AtomicReferenceArray<Bucket> slots;
+    private final int mask;
+    private final int probes;
+    private final long intervalMillis;
+    private final long burstMillis;
+    private final long originMillis;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+    private final LongAdder evictions = new LongAdder();
+
+    public TokenBucketTable(int slots, int capacity, Duration refillInterval, long originMillis) {
+        if (slots <= 0 || capacity <= 0 || refillInterval.toMillis() <= 0) {
+            throw new IllegalArgumentException("slots, capacity and refillInterval must be positive");
+        }
+        int size = Integer.highestOneBit(slots * 2 - 1);
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.probes = Math.min(PROBES, size);
+        this.intervalMillis = refillInterval.toMillis();
+        this.burstMillis = intervalMillis * capacity;
+        this.originMillis = originMillis;
+    }
+
+    /**
+     * Забирает токен для ключа.
+     *
+     * @return 0, если токен выдан, иначе сколько миллисекунд ждать следующего
+     */
+    public long tryAcquire(String key, long nowMillis) {
+        long fingerprint = hash(key);
+        int home = (int) fingerprint & mask;
+        long now = Math.max(0, nowMillis - originMillis);
+
+        while (true) {
+            int index = -1;
+            Bucket current = null;
+            for (int probe = 0; probe < probes; probe++) {
+                int slot = (home + probe) & mask;
+                Bucket bucket = slots.get(slot);
+                if (bucket != null && bucket.fingerprint() == fingerprint) {
+                    index = slot;
+                    current = bucket;
+                    break;
+                }
+                // Кандидат на замену: пустой слот или bucket, который пополнится раньше остальных
+                if (index < 0 || current != null && (bucket == null || bucket.arrival() < current.arrival())) {
+                    index = slot;
+                    current = bucket;
+                }
+            }
+
+            boolean own = current != null && current.fingerprint() == fingerprint;
+            long nextArrival = Math.max(own ? current.arrival() : 0, now) + intervalMillis;
+            if (nextArrival - now > burstMillis) {
+                return nextArrival - now - burstMillis;
+            }
+            if (slots.compareAndSet(index, current, new Bucket(fingerprint, nextArrival))) {
+                if (!own && current != null && current.arrival() > now) {
+                    evictions.increment();
+                }
+                return 0;
+            }
+        }
+    }
+
+    public int getSlots() {
+        return slots.length();
+    }
+
+    /**
+     * @return сколько раз новый ключ вытеснил частично израсходованный bucket другого ключа
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    // FNV-1a с солью и финализатором из SplitMix64
+    private long hash(String key) {
+        long hash = seed ^ 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private record Bucket(long fingerprint, long arrival) {
+    }
+}
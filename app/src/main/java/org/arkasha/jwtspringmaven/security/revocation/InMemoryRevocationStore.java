@@ -0,0 +1,147 @@
+package org.arkasha.jwtspringmaven.security.revocation;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.arkasha.jwtspringmaven.security.jwt.JwtService;
+import org.arkasha.tokenverifier.TokenDigest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Черный список токенов в памяти процесса на основе {@link RevocationSet}.
+ * Запись удаляется в момент истечения самого токена.
+ * <p>
+ * Если задан {@code jwt.revocation.snapshot.dir}, состояние переживает перезапуск:
+ * каждый отзыв дописывается в журнал, периодически пишется снимок ({@link RevocationSnapshot}),
+ * а при старте оба файла загружаются до того, как приложение начнет принимать запросы.
+ * Журнал сбрасывается на диск раз в {@code jwt.revocation.snapshot.journal-sync-interval}.
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRevocationStore implements RevocationStore, MeterBinder {
+
+    private static final Logger LOGGER = LogManager.getLogger(InMemoryRevocationStore.class);
+
+    private static final Duration BUCKET_WIDTH = Duration.ofMinutes(1);
+    private static final long EXPIRE_DELAY = 60 * 1000; // 1 минута в миллисекундах
+
+    private final RevocationSet revocationSet;
+    private final RevocationSnapshot snapshot;
+
+    public InMemoryRevocationStore(@Value("${jwt.revocation.max-entries:500000}") int maxEntries,
+                                   @Value("${jwt.revocation.snapshot.dir:}") String snapshotDir) throws IOException {
+        this.revocationSet = new RevocationSet(maxEntries, BUCKET_WIDTH,
+                JwtService.REFRESH_TOKEN_VALIDITY, Instant.now().getEpochSecond());
+        this.snapshot = snapshotDir.isBlank() ? null : new RevocationSnapshot(Path.of(snapshotDir));
+    }
+
+    @PostConstruct
+    void loadSnapshot() throws IOException {
+        if (snapshot == null) {
+            return;
+        }
+        long started = System.nanoTime();
+        int loaded = snapshot.load(revocationSet, Instant.now().getEpochSecond());
+        LOGGER.info("Restored {} revoked tokens ({} still active) in {} ms",
+                loaded, revocationSet.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Override
+    public boolean revoke(TokenDigest digest, Instant expiresAt) {
+        boolean added = revocationSet.add(digest.high(), digest.low(),
+                expiresAt.getEpochSecond(), Instant.now().getEpochSecond());
+        if (!added) {
+            LOGGER.warn("Revocation set is full ({} entries), token was not blacklisted", revocationSet.size());
+            return false;
+        }
+        if (snapshot != null) {
+            try {
+                snapshot.append(digest.high(), digest.low(), expiresAt.getEpochSecond());
+            } catch (IOException e) {
+                LOGGER.error("Failed to journal revoked token", e);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isRevoked(TokenDigest digest) {
+        return revocationSet.contains(digest.high(), digest.low());
+    }
+
+    @Override
+    public int size() {
+        return revocationSet.size();
+    }
+
+    @Scheduled(fixedRate = EXPIRE_DELAY)
+    public void expireRevocations() {
+        int removed = revocationSet.expire(Instant.now().getEpochSecond());
+        if (removed > 0) {
+            LOGGER.info("Removed {} expired tokens from blacklist. Current size: {}",
+                    removed, revocationSet.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.snapshot.interval:60000}")
+    public void writeSnapshot() {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            int written = snapshot.write(revocationSet);
+            LOGGER.debug("Wrote revocation snapshot with {} tokens", written);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Failed to write revocation snapshot", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.snapshot.journal-sync-interval:1000}")
+    public void syncJournal() {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            snapshot.sync();
+        } catch (IOException e) {
+            LOGGER.error("Failed to sync revocation journal", e);
+        }
+    }
+
+    @PreDestroy
+    void closeSnapshot() throws IOException {
+        if (snapshot != null) {
+            writeSnapshot();
+            snapshot.close();
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("jwt.revocation.size", revocationSet, RevocationSet::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(registry);
+        Gauge.builder("jwt.revocation.memory", revocationSet, RevocationSet::memoryBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("jwt.revocation.overflows", revocationSet, RevocationSet::getOverflows)
+                .description("Revocations rejected because the set was full")
+                .register(registry);
+        FunctionCounter.builder("jwt.revocation.expired", revocationSet, RevocationSet::getExpired)
+                .register(registry);
+    }
+}
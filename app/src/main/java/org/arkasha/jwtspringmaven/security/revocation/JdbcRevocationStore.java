@@ -0,0 +1,192 @@
+package org.arkasha.jwtspringmaven.security.revocation;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.arkasha.jwtspringmaven.security.jwt.JwtService;
+import org.arkasha.tokenverifier.TokenDigest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Общий для всех реплик черный список в таблице {@code revoked_tokens}.
+ * <p>
+ * Проверка идет только по локальной копии ({@link RevocationSet}), поэтому запрос
+ * не ждет базу. Новые отзывы других реплик подтягиваются опросом небольшими пачками
+ * по возрастанию {@code id}; задержка распространения - интервал опроса.
+ * <p>
+ * Строки, закоммиченные не по порядку {@code id}, подбирает {@link RevocationPollCursor}: перечитываются
+ * только пропуски в последовательности, не дольше {@code jwt.revocation.jdbc.gap-timeout}.
+ * Уже прочитанные строки в {@link RevocationSet} повторно не добавляются.
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.store", havingValue = "jdbc")
+public class JdbcRevocationStore implements RevocationStore, MeterBinder {
+
+    private static final Logger LOGGER = LogManager.getLogger(JdbcRevocationStore.class);
+
+    private static final Duration BUCKET_WIDTH = Duration.ofMinutes(1);
+    private static final long EXPIRE_DELAY = 60 * 1000; // 1 минута в миллисекундах
+
+    private static final String INSERT_SQL =
+            "INSERT INTO revoked_tokens (digest_high, digest_low, expires_at) VALUES (?, ?, ?)";
+    private static final String POLL_SQL =
+            "SELECT id, digest_high, digest_low, expires_at FROM revoked_tokens"
+                    + " WHERE id > ? AND expires_at > ? ORDER BY id LIMIT ?";
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM revoked_tokens WHERE expires_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RevocationSet localRevocations;
+    private final int batchSize;
+
+    // Меняется только под pollLock. ReentrantLock, а не synchronized: JDBC-вызов под монитором
+    // закрепил бы виртуальный поток за несущим
+    private final ReentrantLock pollLock = new ReentrantLock();
+    private final RevocationPollCursor cursor;
+    private final LongAdder pulled = new LongAdder();
+    private final LongAdder pollFailures = new LongAdder();
+
+    public JdbcRevocationStore(JdbcTemplate jdbcTemplate,
+                               @Value("${jwt.revocation.max-entries:500000}") int maxEntries,
+                               @Value("${jwt.revocation.jdbc.batch-size:500}") int batchSize,
+                               @Value("${jwt.revocation.jdbc.max-gaps:1000}") long maxGaps,
+                               @Value("${jwt.revocation.jdbc.gap-timeout:10s}") Duration gapTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.cursor = new RevocationPollCursor(maxGaps, gapTimeout);
+        this.localRevocations = new RevocationSet(maxEntries, BUCKET_WIDTH,
+                JwtService.REFRESH_TOKEN_VALIDITY, Instant.now().getEpochSecond());
+    }
+
+    @PostConstruct
+    void init() {
+        int loaded = pollRevocations();
+        LOGGER.info("Loaded {} revoked tokens from database", loaded);
+    }
+
+    @Override
+    public boolean revoke(TokenDigest digest, Instant expiresAt) {
+        long expiresAtSeconds = expiresAt.getEpochSecond();
+        try {
+            jdbcTemplate.update(INSERT_SQL, digest.high(), digest.low(), expiresAtSeconds);
+        } catch (DuplicateKeyException e) {
+            LOGGER.debug("Token {} is already revoked", digest);
+        }
+        return localRevocations.add(digest.high(), digest.low(),
+                expiresAtSeconds, Instant.now().getEpochSecond());
+    }
+
+    @Override
+    public boolean isRevoked(TokenDigest digest) {
+        return localRevocations.contains(digest.high(), digest.low());
+    }
+
+    @Override
+    public int size() {
+        return localRevocations.size();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.jdbc.poll-interval:1000}")
+    public void poll() {
+        try {
+            pollRevocations();
+        } catch (DataAccessException e) {
+            pollFailures.increment();
+            LOGGER.warn("Failed to poll revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedRate = EXPIRE_DELAY)
+    public void expireRevocations() {
+        long now = Instant.now().getEpochSecond();
+        localRevocations.expire(now);
+        try {
+            jdbcTemplate.update(DELETE_EXPIRED_SQL, now);
+        } catch (DataAccessException e) {
+            LOGGER.warn("Failed to delete expired revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Читает строки после позиции {@link RevocationPollCursor} пачками, пока пачка заполнена целиком
+     *
+     * @return число новых строк
+     */
+    private int pollRevocations() {
+        pollLock.lock();
+        try {
+            return pollBatches();
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    private int pollBatches() {
+        long nowMillis = System.currentTimeMillis();
+        long after = cursor.start(nowMillis);
+        int total = 0;
+        int fetched;
+        do {
+            long now = Instant.now().getEpochSecond();
+            long[] maxId = {after};
+            int[] fresh = {0};
+            fetched = jdbcTemplate.query(POLL_SQL, rs -> {
+                int count = 0;
+                while (rs.next()) {
+                    long id = rs.getLong(1);
+                    maxId[0] = Math.max(maxId[0], id);
+                    if (cursor.accept(id, nowMillis)) {
+                        localRevocations.add(rs.getLong(2), rs.getLong(3), rs.getLong(4), now);
+                        fresh[0]++;
+                    }
+                    count++;
+                }
+                return count;
+            }, after, now, batchSize);
+            after = maxId[0];
+            total += fresh[0];
+        } while (fetched == batchSize);
+
+        pulled.add(total);
+        return total;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("jwt.revocation.size", localRevocations, RevocationSet::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(registry);
+        Gauge.builder("jwt.revocation.memory", localRevocations, RevocationSet::memoryBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("jwt.revocation.overflows", localRevocations, RevocationSet::getOverflows)
+                .description("Revocations rejected because the set was full")
+                .register(registry);
+        FunctionCounter.builder("jwt.revocation.expired", localRevocations, RevocationSet::getExpired)
+                .register(registry);
+        FunctionCounter.builder("jwt.revocation.pulled", pulled, LongAdder::sum)
+                .description("Revocations pulled from the shared table")
+                .register(registry);
+        FunctionCounter.builder("jwt.revocation.poll.failures", pollFailures, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("jwt.revocation.poll.gaps", cursor, RevocationPollCursor::getGaps)
+                .description("Missing ids the poll still waits for")
+                .register(registry);
+    }
+}
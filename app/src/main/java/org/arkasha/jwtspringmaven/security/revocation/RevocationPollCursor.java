@@ -0,0 +1,73 @@
+package org.arkasha.jwtspringmaven.security.revocation;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Позиция опроса {@code revoked_tokens} по возрастанию {@code id}.
+ * <p>
+ * Identity выдается до коммита, поэтому строка с меньшим {@code id} может стать видна позже строки
+ * с большим. Пропуски в последовательности запоминаются вместе со временем, когда их заметили, и опрос
+ * перечитывает строки начиная с самого старого пропуска. Пропуск, не заполненный за {@code gapTimeout}
+ * (откат транзакции, кэш последовательности, удаленная строка), забывается - на простаивающей системе
+ * опрос снова читает только новые строки. Отслеживается не больше {@code maxGaps} пропусков.
+ * <p>
+ * Не потокобезопасен: опросы идут последовательно.
+ */
+public final class RevocationPollCursor {
+    private final long maxGaps;
+    private final long gapTimeoutMillis;
+
+    // Пропущенный id -> когда пропуск заметили
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+    private long lastSeenId;
+
+    public RevocationPollCursor(long maxGaps, Duration gapTimeout) {
+        this.maxGaps = maxGaps;
+        this.gapTimeoutMillis = gapTimeout.toMillis();
+    }
+
+    /**
+     * Забывает просроченные пропуски
+     *
+     * @return id, после которого читать строки
+     */
+    public long start(long nowMillis) {
+        Iterator<Map.Entry<Long, Long>> iterator = gaps.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (nowMillis - iterator.next().getValue() >= gapTimeoutMillis) {
+                iterator.remove();
+            }
+        }
+        return gaps.isEmpty() ? lastSeenId : gaps.firstKey() - 1;
+    }
+
+    /**
+     * Отмечает прочитанную строку
+     *
+     * @return true, если строка новая: после последней прочитанной или заполняет пропуск
+     */
+    public boolean accept(long id, long nowMillis) {
+        if (id <= lastSeenId) {
+            return gaps.remove(id) != null;
+        }
+        for (long missing = Math.max(lastSeenId + 1, id - maxGaps); missing < id; missing++) {
+            gaps.put(missing, nowMillis);
+        }
+        while (gaps.size() > maxGaps) {
+            gaps.pollFirstEntry();
+        }
+        lastSeenId = id;
+        return true;
+    }
+
+    public long getLastSeenId() {
+        return lastSeenId;
+    }
+
+    public int getGaps() {
+        return gaps.size();
+    }
+}
@@ -0,0 +1,381 @@
+package org.arkasha.jwtspringmaven.security.revocation;
+
+import java.nio.LongBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Множество отозванных токенов на примитивных массивах.
+ * <p>
+ * Хранит 128-битные отпечатки токенов в таблице с открытой адресацией (линейное пробирование)
+ * вместе с exp токена. Записи разложены по временным корзинам шириной {@code bucketWidth},
+ * поэтому очистка трогает только корзины, срок которых уже прошел, а не всю таблицу.
+ * Число записей ограничено {@code maxEntries}; при переполнении запись не добавляется
+ * и увеличивается счетчик {@link #getOverflows()}.
+ * <p>
+ * Чтение идет через оптимистичную блокировку {@link StampedLock}, запись - под эксклюзивной.
+ * Повторное добавление уже известной записи эксклюзивную блокировку не берет и чтение не сбивает.
+ * Время передается в секундах epoch, чтобы класс не зависел от часов.
+ */
+public final class RevocationSet {
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final int INITIAL_BUCKET_SIZE = 16;
+
+    private final int maxEntries;
+    private final int maxCapacity;
+    private final long bucketSeconds;
+    private final long horizonSeconds;
+    private final int ringLength;
+
+    private final StampedLock lock = new StampedLock();
+    private Table table;
+    private volatile int size;
+
+    private final long[][] buckets;
+    private final int[] bucketSizes;
+    private long sweptPeriod;
+
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    public RevocationSet(int maxEntries, Duration bucketWidth, Duration horizon, long nowSeconds) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxCapacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(maxEntries * 2 - 1) << 1);
+        this.bucketSeconds = Math.max(1, bucketWidth.toSeconds());
+        this.horizonSeconds = horizon.toSeconds();
+        this.ringLength = (int) (horizonSeconds / bucketSeconds) + 2;
+        this.table = new Table(Math.min(MIN_CAPACITY, maxCapacity));
+        this.buckets = new long[ringLength][];
+        this.bucketSizes = new int[ringLength];
+        this.sweptPeriod = nowSeconds / bucketSeconds;
+    }
+
+    /**
+     * Добавляет отпечаток токена. Уже истекшие токены не запоминаются.
+     *
+     * @return false, если место закончилось и запись не добавлена
+     */
+    public boolean add(long high, long low, long expiresAt, long nowSeconds) {
+        if (expiresAt <= nowSeconds) {
+            return true;
+        }
+        if (containsUntil(high, low, expiresAt)) {
+            return true;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            return addLocked(high, low, expiresAt, nowSeconds);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Добавляет записи подряд идущими тройками (старшие, младшие 64 бита отпечатка, exp)
+     * под одной эксклюзивной блокировкой - для загрузки снимка
+     *
+     * @return число прочитанных троек
+     */
+    public int addAll(LongBuffer records, long nowSeconds) {
+        int count = records.remaining() / 3;
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < count; i++) {
+                long high = records.get();
+                long low = records.get();
+                long expiresAt = records.get();
+                if (expiresAt > nowSeconds) {
+                    addLocked(high, low, expiresAt, nowSeconds);
+                }
+            }
+            return count;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private boolean addLocked(long high, long low, long expiresAt, long nowSeconds) {
+        int slot = find(table, high, low);
+        if (slot >= 0) {
+            if (expiresAt > table.expiries[slot]) {
+                table.expiries[slot] = expiresAt;
+                addToBucket(high, low, expiresAt, nowSeconds);
+            }
+            return true;
+        }
+
+        if (size >= maxEntries) {
+            expireLocked(nowSeconds);
+            if (size >= maxEntries) {
+                overflows.increment();
+                return false;
+            }
+        }
+        if ((size + 1) * 2 > table.capacity() && table.capacity() < maxCapacity) {
+            table = table.resize(table.capacity() * 2);
+        }
+
+        table.insert(high, low, expiresAt);
+        size++;
+        addToBucket(high, low, expiresAt, nowSeconds);
+        return true;
+    }
+
+    public boolean contains(long high, long low) {
+        long stamp = lock.tryOptimisticRead();
+        boolean found = find(table, high, low) >= 0;
+        if (lock.validate(stamp)) {
+            return found;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return find(table, high, low) >= 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return true, если запись уже есть и живет не меньше {@code expiresAt}; без блокировки на запись
+     */
+    private boolean containsUntil(long high, long low, long expiresAt) {
+        long stamp = lock.tryOptimisticRead();
+        Table current = table;
+        int slot = find(current, high, low);
+        boolean covered = slot >= 0 && current.expiries[slot] >= expiresAt;
+        return lock.validate(stamp) && covered;
+    }
+
+    /**
+     * Удаляет записи из корзин, срок которых полностью истек к {@code nowSeconds}
+     *
+     * @return число удаленных записей
+     */
+    public int expire(long nowSeconds) {
+        long stamp = lock.writeLock();
+        try {
+            return expireLocked(nowSeconds);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Заранее увеличивает таблицу, чтобы массовая загрузка не делала промежуточных resize
+     */
+    public void ensureCapacity(int entries) {
+        long stamp = lock.writeLock();
+        try {
+            int required = Math.min(maxCapacity, Math.max(MIN_CAPACITY, Integer.highestOneBit(
+                    Math.max(1, Math.min(entries, maxEntries) * 2 - 1)) << 1));
+            if (required > table.capacity()) {
+                table = table.resize(required);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Обходит все записи под блокировкой чтения; размер передается до первой записи
+     */
+    public void forEach(EntryVisitor visitor) {
+        long stamp = lock.readLock();
+        try {
+            visitor.begin(size);
+            for (int i = 0; i <= table.mask; i++) {
+                if (table.expiries[i] != 0) {
+                    visitor.entry(table.highs[i], table.lows[i], table.expiries[i]);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getOverflows() {
+        return overflows.sum();
+    }
+
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    /**
+     * Приблизительный объем памяти под таблицу и корзины в байтах
+     */
+    public long memoryBytes() {
+        long stamp = lock.readLock();
+        try {
+            long bytes = (long) table.capacity() * 3 * Long.BYTES;
+            for (long[] bucket : buckets) {
+                if (bucket != null) {
+                    bytes += (long) bucket.length * Long.BYTES;
+                }
+            }
+            return bytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int expireLocked(long nowSeconds) {
+        long currentPeriod = nowSeconds / bucketSeconds;
+        long from = Math.max(sweptPeriod, currentPeriod - ringLength);
+        int removed = 0;
+
+        for (long period = from; period < currentPeriod; period++) {
+            int index = (int) Math.floorMod(period, (long) ringLength);
+            long[] bucket = buckets[index];
+            int count = bucketSizes[index];
+            buckets[index] = null;
+            bucketSizes[index] = 0;
+
+            for (int i = 0; i < count; i++) {
+                long high = bucket[i * 2];
+                long low = bucket[i * 2 + 1];
+                int slot = find(table, high, low);
+                if (slot < 0) {
+                    continue;
+                }
+                long expiresAt = table.expiries[slot];
+                if (expiresAt <= nowSeconds) {
+                    table.removeAt(slot);
+                    size--;
+                    removed++;
+                } else {
+                    // Запись за горизонтом кольца или с продленным exp - переносим в ее корзину
+                    addToBucket(high, low, expiresAt, nowSeconds);
+                }
+            }
+        }
+
+        sweptPeriod = Math.max(sweptPeriod, currentPeriod);
+        expired.add(removed);
+        return removed;
+    }
+
+    private void addToBucket(long high, long low, long expiresAt, long nowSeconds) {
+        long period = Math.min(expiresAt, nowSeconds + horizonSeconds) / bucketSeconds;
+        int index = (int) Math.floorMod(period, (long) ringLength);
+
+        long[] bucket = buckets[index];
+        int count = bucketSizes[index];
+        if (bucket == null) {
+            bucket = new long[INITIAL_BUCKET_SIZE * 2];
+        } else if (count * 2 + 2 > bucket.length) {
+            bucket = Arrays.copyOf(bucket, bucket.length * 2);
+        }
+        bucket[count * 2] = high;
+        bucket[count * 2 + 1] = low;
+        buckets[index] = bucket;
+        bucketSizes[index] = count + 1;
+    }
+
+    private static int find(Table table, long high, long low) {
+        int mask = table.mask;
+        int slot = Table.home(high, low) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            if (table.expiries[slot] == 0) {
+                return -1;
+            }
+            if (table.highs[slot] == high && table.lows[slot] == low) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public interface EntryVisitor {
+        void begin(int size);
+
+        void entry(long high, long low, long expiresAt);
+    }
+
+    /**
+     * Массивы таблицы собраны в один объект, чтобы оптимистичное чтение видело их согласованными.
+     * Пустой слот - слот с нулевым exp.
+     */
+    private static final class Table {
+        final long[] highs;
+        final long[] lows;
+        final long[] expiries;
+        final int mask;
+
+        Table(int capacity) {
+            highs = new long[capacity];
+            lows = new long[capacity];
+            expiries = new long[capacity];
+            mask = capacity - 1;
+        }
+
+        static int home(long high, long low) {
+            long mixed = high ^ low;
+            return (int) (mixed ^ (mixed >>> 32));
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        Table resize(int capacity) {
+            Table resized = new Table(capacity);
+            for (int i = 0; i <= mask; i++) {
+                if (expiries[i] != 0) {
+                    resized.insert(highs[i], lows[i], expiries[i]);
+                }
+            }
+            return resized;
+        }
+
+        void insert(long high, long low, long expiresAt) {
+            int slot = home(high, low) & mask;
+            while (expiries[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            highs[slot] = high;
+            lows[slot] = low;
+            expiries[slot] = expiresAt;
+        }
+
+        /**
+         * Удаление со сдвигом назад: без надгробий цепочки пробирования остаются короткими
+         */
+        void removeAt(int slot) {
+            int hole = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+                if (expiries[next] == 0) {
+                    break;
+                }
+                int home = home(highs[next], lows[next]) & mask;
+                boolean stays = hole <= next
+                        ? hole < home && home <= next
+                        : hole < home || home <= next;
+                if (!stays) {
+                    highs[hole] = highs[next];
+                    lows[hole] = lows[next];
+                    expiries[hole] = expiries[next];
+                    hole = next;
+                }
+            }
+            highs[hole] = 0;
+            lows[hole] = 0;
+            expiries[hole] = 0;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.arkasha.jwtspringmaven.security.revocation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Снимок {@link RevocationSet} в memory-mapped файле и журнал отзывов между снимками.
+ * <p>
+ * Формат записи в обоих файлах - три long: старшие и младшие 64 бита отпечатка и exp.
+ * Снимок начинается с заголовка (magic, версия, число записей). При загрузке записи
+ * читаются из отображенного файла и вставляются в таблицу {@link RevocationSet} под одной
+ * блокировкой ({@link RevocationSet#addAll}); таблица хэшированная, поэтому вставка - копия, но одна.
+ * Недописанный хвост журнала после падения процесса отбрасывается.
+ * <p>
+ * Журнал сбрасывается на диск ({@link #sync()}) по расписанию, а не на каждый отзыв:
+ * при падении ОС теряются отзывы не старше интервала сброса.
+ */
+public class RevocationSnapshot {
+
+    private static final int MAGIC = 0x52564b31; // "RVK1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 3 * Long.BYTES;
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private final ByteBuffer journalRecord = ByteBuffer.allocate(RECORD_SIZE);
+    private FileChannel journal;
+    // Есть записи журнала, еще не сброшенные на диск; меняется под journalLock
+    private boolean dirty;
+
+    public RevocationSnapshot(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.snapshotFile = directory.resolve("revocations.snapshot");
+        this.journalFile = directory.resolve("revocations.journal");
+    }
+
+    /**
+     * Загружает снимок и журнал в {@code revocationSet} и открывает журнал для дозаписи
+     *
+     * @return число прочитанных записей
+     */
+    public int load(RevocationSet revocationSet, long nowSeconds) throws IOException {
+        int loaded = 0;
+        if (Files.exists(snapshotFile)) {
+            try (FileChannel channel = FileChannel.open(snapshotFile, READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.limit() >= HEADER_SIZE && buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION) {
+                    long count = Math.min(buffer.getLong(8), (buffer.limit() - HEADER_SIZE) / RECORD_SIZE);
+                    revocationSet.ensureCapacity((int) count);
+                    loaded += readRecords(buffer, HEADER_SIZE, (int) count, revocationSet, nowSeconds);
+                }
+            }
+        }
+        if (Files.exists(journalFile)) {
+            try (FileChannel channel = FileChannel.open(journalFile, READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                loaded += readRecords(buffer, 0, buffer.limit() / RECORD_SIZE, revocationSet, nowSeconds);
+            }
+        }
+
+        journal = FileChannel.open(journalFile, CREATE, WRITE, APPEND);
+        return loaded;
+    }
+
+    /**
+     * Дописывает отзыв в журнал
+     */
+    public void append(long high, long low, long expiresAt) throws IOException {
+        journalLock.lock();
+        try {
+            journalRecord.clear();
+            journalRecord.putLong(high).putLong(low).putLong(expiresAt).flip();
+            while (journalRecord.hasRemaining()) {
+                journal.write(journalRecord);
+            }
+            dirty = true;
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * Сбрасывает дописанные с прошлого раза записи журнала на диск
+     */
+    public void sync() throws IOException {
+        journalLock.lock();
+        try {
+            if (journal != null && dirty) {
+                journal.force(false);
+                dirty = false;
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * Пишет новый снимок во временный файл, атомарно подменяет старый и обнуляет журнал.
+     * Журнал заблокирован на всё время записи, поэтому отзыв попадает либо в снимок, либо в журнал.
+     */
+    public int write(RevocationSet revocationSet) throws IOException {
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        journalLock.lock();
+        try {
+            int[] written = {0};
+            try (FileChannel channel = FileChannel.open(tempFile, CREATE, READ, WRITE, TRUNCATE_EXISTING)) {
+                revocationSet.forEach(new RevocationSet.EntryVisitor() {
+                    private MappedByteBuffer buffer;
+
+                    @Override
+                    public void begin(int size) {
+                        try {
+                            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                                    HEADER_SIZE + (long) size * RECORD_SIZE);
+                        } catch (IOException e) {
+                            throw new IllegalStateException("Cannot map snapshot file " + tempFile, e);
+                        }
+                        buffer.putInt(MAGIC).putInt(VERSION).putLong(size);
+                    }
+
+                    @Override
+                    public void entry(long high, long low, long expiresAt) {
+                        buffer.putLong(high).putLong(low).putLong(expiresAt);
+                        written[0]++;
+                    }
+                });
+                channel.force(true);
+            }
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (journal != null) {
+                journal.truncate(0);
+                journal.force(false);
+                dirty = false;
+            }
+            return written[0];
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    public void close() throws IOException {
+        journalLock.lock();
+        try {
+            if (journal != null) {
+                if (dirty) {
+                    journal.force(false);
+                    dirty = false;
+                }
+                journal.close();
+                journal = null;
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private static int readRecords(MappedByteBuffer buffer, int offset, int count,
+                                   RevocationSet revocationSet, long nowSeconds) {
+        return revocationSet.addAll(buffer.slice(offset, count * RECORD_SIZE).asLongBuffer(), nowSeconds);
+    }
+}
@@ -0,0 +1,24 @@
+package org.arkasha.jwtspringmaven.security.revocation;
+
+import org.arkasha.tokenverifier.RevocationCheck;
+import org.arkasha.tokenverifier.TokenDigest;
+
+import java.time.Instant;
+
+/**
+ * Хранилище отозванных токенов. Реализация выбирается свойством {@code jwt.revocation.store}:
+ * {@code memory} (по умолчанию) или {@code jdbc}.
+ * <p>
+ * {@link #isRevoked} вызывается на каждый запрос и не должен ходить в сеть или базу.
+ */
+public interface RevocationStore extends RevocationCheck {
+
+    /**
+     * Отзывает токен до момента {@code expiresAt}
+     *
+     * @return false, если токен не удалось сохранить
+     */
+    boolean revoke(TokenDigest digest, Instant expiresAt);
+
+    int size();
+}
@@ -0,0 +1,13 @@
+package org.arkasha.jwtspringmaven.security.signing;
+
+import java.security.PrivateKey;
+import java.security.interfaces.ECPublicKey;
+
+/**
+ * Пара ключей ES256 для одного интервала ротации.
+ *
+ * @param keyId отпечаток открытого ключа по RFC 7638, он же {@code kid}
+ * @param slot  номер интервала ротации от начала эпохи
+ */
+public record SigningKey(String keyId, long slot, PrivateKey privateKey, ECPublicKey publicKey) {
+}
@@ -0,0 +1,122 @@
+package org.arkasha.jwtspringmaven.security.signing;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.stream.Stream;
+
+/**
+ * Ключи подписи в общем каталоге, по файлу {@code <slot>.pem} на интервал ротации:
+ * закрытый ключ PKCS#8 и открытый X.509 в PEM.
+ * <p>
+ * Реплики с одним каталогом создают ключ очередного интервала наперегонки: файл пишется
+ * во временный и привязывается к итоговому имени жесткой ссылкой, которая не заменяет
+ * существующий файл. Проигравшая реплика читает ключ победителя.
+ */
+final class SigningKeyFiles {
+    private static final String PRIVATE_KEY = "PRIVATE KEY";
+    private static final String PUBLIC_KEY = "PUBLIC KEY";
+    private static final String SUFFIX = ".pem";
+
+    private final Path dir;
+
+    SigningKeyFiles(Path dir) throws IOException {
+        this.dir = Files.createDirectories(dir);
+    }
+
+    /**
+     * @return пара ключей или null, если файла нет
+     */
+    KeyPair load(long slot) throws IOException {
+        String pem;
+        try {
+            pem = Files.readString(file(slot), StandardCharsets.US_ASCII);
+        }
+        catch (NoSuchFileException e) {
+            return null;
+        }
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decode(pem, PRIVATE_KEY)));
+            ECPublicKey publicKey = (ECPublicKey) keyFactory.generatePublic(new X509EncodedKeySpec(decode(pem, PUBLIC_KEY)));
+            return new KeyPair(publicKey, privateKey);
+        }
+        catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IOException("Invalid signing key file " + file(slot), e);
+        }
+    }
+
+    /**
+     * Сохраняет ключ, если для интервала его еще нет
+     *
+     * @return сохраненный ключ или ключ, который успела записать другая реплика
+     */
+    KeyPair create(long slot, KeyPair keyPair) throws IOException {
+        Path temp = Files.createTempFile(dir, slot + "-", ".tmp");
+        try {
+            Files.writeString(temp, encode(PRIVATE_KEY, keyPair.getPrivate().getEncoded())
+                    + encode(PUBLIC_KEY, keyPair.getPublic().getEncoded()), StandardCharsets.US_ASCII);
+            Files.createLink(file(slot), temp);
+            return keyPair;
+        }
+        catch (FileAlreadyExistsException e) {
+            return load(slot);
+        }
+        finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Удаляет ключи интервалов раньше {@code oldestSlot}
+     */
+    void deleteBefore(long oldestSlot) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(SUFFIX)) {
+                    continue;
+                }
+                try {
+                    if (Long.parseLong(name.substring(0, name.length() - SUFFIX.length())) < oldestSlot) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+                catch (NumberFormatException e) {
+                    // Чужой файл в каталоге не трогаем
+                }
+            }
+        }
+    }
+
+    private Path file(long slot) {
+        return dir.resolve(slot + SUFFIX);
+    }
+
+    private static String encode(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, new byte[]{'\n'}).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+
+    private static byte[] decode(String pem, String type) {
+        String begin = "-----BEGIN " + type + "-----";
+        int start = pem.indexOf(begin);
+        int end = pem.indexOf("-----END " + type + "-----");
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("No " + type + " block");
+        }
+        return Base64.getMimeDecoder().decode(pem.substring(start + begin.length(), end));
+    }
+}
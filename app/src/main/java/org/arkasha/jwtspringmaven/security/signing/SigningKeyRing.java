@@ -0,0 +1,204 @@
+package org.arkasha.jwtspringmaven.security.signing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.arkasha.jwtspringmaven.security.jwt.JwtService;
+import org.arkasha.tokenverifier.JwkSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Ключи ES256 для режима {@code jwt.signing.mode=ec}.
+ * <p>
+ * Время делится на интервалы {@code jwt.signing.rotation-interval}; у каждого интервала свой ключ,
+ * {@code kid} - отпечаток открытого ключа (RFC 7638). Подписывает ключ текущего интервала.
+ * Опубликованы (и принимаются при проверке) ключи от самого старого интервала, чьи токены
+ * еще могут быть живы, до следующего: следующий ключ виден в JWKS за интервал до первой подписи,
+ * поэтому кэш JWKS не старше {@code jwt.signing.jwks-max-age} его уже содержит.
+ * <p>
+ * Без {@code jwt.signing.key-dir} ключи живут только в памяти и не переживают перезапуск;
+ * несколько реплик должны делить каталог, иначе токен одной реплики не примет другая.
+ * Состояние - один неизменяемый снимок, путь проверки читает его без блокировок.
+ */
+@Component
+public class SigningKeyRing implements MeterBinder {
+
+    private static final Logger LOGGER = LogManager.getLogger(SigningKeyRing.class);
+
+    public static final String MODE_EC = "ec";
+    private static final String CURVE = "secp256r1";
+
+    private final boolean enabled;
+    private final long rotationSeconds;
+    private final int retainedSlots;
+    private final Duration jwksMaxAge;
+    private final SigningKeyFiles files;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    private record Snapshot(long slot, SigningKey current, Map<Long, SigningKey> keys,
+                            Map<String, PublicKey> publicKeys, String jwks) {
+        static final Snapshot EMPTY = new Snapshot(Long.MIN_VALUE, null, Map.of(), Map.of(), "{\"keys\":[]}");
+    }
+
+    public SigningKeyRing(@Value("${jwt.signing.mode:hmac}") String mode,
+                          @Value("${jwt.signing.rotation-interval:24h}") Duration rotationInterval,
+                          @Value("${jwt.signing.jwks-max-age:5m}") Duration jwksMaxAge,
+                          @Value("${jwt.signing.key-dir:}") String keyDir) throws IOException {
+        this.enabled = MODE_EC.equalsIgnoreCase(mode);
+        if (enabled && jwksMaxAge.compareTo(rotationInterval) >= 0) {
+            throw new IllegalArgumentException("jwt.signing.jwks-max-age must be shorter than the rotation interval");
+        }
+        this.rotationSeconds = rotationInterval.toSeconds();
+        // Токен, подписанный в конце интервала s, живет до интервала s + 1 + validity / interval
+        this.retainedSlots = (int) (JwtService.REFRESH_TOKEN_VALIDITY.toSeconds() / rotationSeconds) + 1;
+        this.jwksMaxAge = jwksMaxAge;
+        this.files = enabled && !keyDir.isBlank() ? new SigningKeyFiles(Path.of(keyDir)) : null;
+    }
+
+    @PostConstruct
+    void init() {
+        if (enabled) {
+            rotate(Instant.now());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ключ для подписи новых токенов
+     */
+    public SigningKey current() {
+        return snapshot.current();
+    }
+
+    /**
+     * Открытые ключи по {@code kid}; карта неизменяема и заменяется целиком при ротации
+     */
+    public Map<String, PublicKey> publicKeys() {
+        return snapshot.publicKeys();
+    }
+
+    /**
+     * JWK Set опубликованных ключей (RFC 7517), собранный при ротации
+     */
+    public String jwks() {
+        return snapshot.jwks();
+    }
+
+    public Duration getJwksMaxAge() {
+        return jwksMaxAge;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing.check-interval:60000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rotate(Instant.now());
+        } catch (UncheckedIOException e) {
+            LOGGER.error("Failed to rotate signing keys", e);
+        }
+    }
+
+    /**
+     * Переходит к интервалу, в который попадает {@code now}, если он сменился
+     */
+    void rotate(Instant now) {
+        long slot = Math.floorDiv(now.getEpochSecond(), rotationSeconds);
+        Snapshot previous = snapshot;
+        if (slot == previous.slot()) {
+            return;
+        }
+
+        Map<Long, SigningKey> keys = new TreeMap<>();
+        for (long s = slot - retainedSlots; s <= slot + 1; s++) {
+            SigningKey key = previous.keys().get(s);
+            if (key == null) {
+                key = loadOrCreate(s, s >= slot);
+            }
+            if (key != null) {
+                keys.put(s, key);
+            }
+        }
+        Map<String, ECPublicKey> published = new LinkedHashMap<>();
+        keys.values().forEach(key -> published.put(key.keyId(), key.publicKey()));
+
+        snapshot = new Snapshot(slot, keys.get(slot), Map.copyOf(keys), Map.<String, PublicKey>copyOf(published),
+                JwkSet.write(published));
+        LOGGER.info("Signing with key {}, {} keys published", keys.get(slot).keyId(), keys.size());
+        deleteExpiredFiles(slot - retainedSlots);
+    }
+
+    private SigningKey loadOrCreate(long slot, boolean create) {
+        try {
+            KeyPair keyPair = files != null ? files.load(slot) : null;
+            if (keyPair == null && create) {
+                keyPair = generateKeyPair();
+                if (files != null) {
+                    keyPair = files.create(slot, keyPair);
+                }
+            }
+            return keyPair == null ? null : toSigningKey(slot, keyPair);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteExpiredFiles(long oldestSlot) {
+        if (files == null) {
+            return;
+        }
+        try {
+            files.deleteBefore(oldestSlot);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete expired signing keys: {}", e.getMessage());
+        }
+    }
+
+    private static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec(CURVE));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("EC " + CURVE + " is not available", e);
+        }
+    }
+
+    private static SigningKey toSigningKey(long slot, KeyPair keyPair) {
+        ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+        return new SigningKey(JwkSet.thumbprint(publicKey), slot, keyPair.getPrivate(), publicKey);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("jwt.signing.keys", this, ring -> ring.publicKeys().size())
+                .description("Published signing keys")
+                .register(registry);
+    }
+}
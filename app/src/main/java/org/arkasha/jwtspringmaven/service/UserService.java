@@ -2,16 +2,21 @@ package org.arkasha.jwtspringmaven.service;
 
 import org.arkasha.jwtspringmaven.dto.JwtAuthenticationDto;
 import org.arkasha.jwtspringmaven.dto.RefreshTokenDto;
+import org.arkasha.jwtspringmaven.dto.RegistrationResultDto;
 import org.arkasha.jwtspringmaven.dto.UserCredentialsDto;
 import org.arkasha.jwtspringmaven.dto.UserDto;
 import org.springframework.data.crossstore.ChangeSetPersister;
 
-import javax.naming.AuthenticationException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface UserService {
-    JwtAuthenticationDto signIn(UserCredentialsDto userCredentialsDto) throws AuthenticationException;
-    JwtAuthenticationDto refreshToken(RefreshTokenDto refreshTokenDto) throws Exception;
+    CompletableFuture<Optional<JwtAuthenticationDto>> signIn(UserCredentialsDto userCredentialsDto);
+    Optional<JwtAuthenticationDto> refreshToken(RefreshTokenDto refreshTokenDto);
     UserDto getUserById(String id) throws ChangeSetPersister.NotFoundException;
     UserDto getUserByEmail(String email) throws Exception;
-    String addUser(UserDto user);
+    CompletableFuture<String> addUser(UserDto user);
+    List<RegistrationResultDto> addUsers(List<UserDto> users);
+    String revokeAllSessions(String email);
 }
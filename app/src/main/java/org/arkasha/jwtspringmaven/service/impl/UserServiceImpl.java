@@ -0,0 +1,357 @@
+package org.arkasha.jwtspringmaven.service.impl;
+
+import io.micrometer.observation.ObservationRegistry;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.arkasha.jwtspringmaven.audit.AuditEvent;
+import org.arkasha.jwtspringmaven.audit.AuditEventType;
+import org.arkasha.jwtspringmaven.audit.AuditLog;
+import org.arkasha.jwtspringmaven.dto.JwtAuthenticationDto;
+import org.arkasha.jwtspringmaven.dto.RefreshTokenDto;
+import org.arkasha.jwtspringmaven.dto.RegistrationResultDto;
+import org.arkasha.jwtspringmaven.dto.UserCredentialsDto;
+import org.arkasha.jwtspringmaven.dto.UserDto;
+import org.arkasha.jwtspringmaven.entity.JwtAuthentication;
+import org.arkasha.jwtspringmaven.entity.User;
+import org.arkasha.jwtspringmaven.mapper.UserMapper;
+import org.arkasha.jwtspringmaven.repository.JwtAuthenticationRepository;
+import org.arkasha.jwtspringmaven.repository.UserBatchRepository;
+import org.arkasha.jwtspringmaven.repository.UserRepository;
+import org.arkasha.jwtspringmaven.security.CustomUserDetails;
+import org.arkasha.jwtspringmaven.security.PasswordHashingExecutor;
+import org.arkasha.jwtspringmaven.security.TokenVersionCache;
+import org.arkasha.jwtspringmaven.security.UserDetailsCache;
+import org.arkasha.jwtspringmaven.security.jwt.JwtService;
+import org.arkasha.jwtspringmaven.security.jwt.TokenSubject;
+import org.arkasha.jwtspringmaven.service.UserService;
+import org.arkasha.jwtspringmaven.tracing.PhaseObservation;
+import org.arkasha.tokenverifier.TokenDigest;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.crossstore.ChangeSetPersister;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+@Service
+@RequiredArgsConstructor
+public class UserServiceImpl implements UserService {
+    private static final long SESSION_CLEANUP_DELAY = 60 * 60 * 1000; // 1 час в миллисекундах
+
+    @Value("${user.registration.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    @Value("${user.registration.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    private final UserMapper userMapper;
+    private final UserRepository userRepository;
+    private final JwtAuthenticationRepository jwtAuthenticationRepository;
+    private final JwtService jwtService;
+    private final PasswordEncoder passwordEncoder;
+    private final TokenVersionCache tokenVersionCache;
+    private final UserDetailsCache userDetailsCache;
+    private final UserBatchRepository userBatchRepository;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    // Продолжения с обращением к базе: пул хэширования занят только BCrypt
+    @Qualifier("applicationTaskExecutor")
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    private final ObservationRegistry observationRegistry;
+    private final AuditLog auditLog;
+
+    /**
+     * Пользователь ищется в потоке запроса, проверка BCrypt идет в {@link PasswordHashingExecutor},
+     * выдача токенов и запись сессии - в {@code applicationTaskExecutor}.
+     * Неверные email или пароль дают пустой результат, без исключения.
+     * Если очередь пула заполнена, метод сразу бросает {@link RejectedExecutionException}.
+     * Каждая попытка, кроме отклоненной пулом, попадает в {@link AuditLog}.
+     */
+    @Override
+    public CompletableFuture<Optional<JwtAuthenticationDto>> signIn(UserCredentialsDto userCredentialsDto) {
+        Optional<User> optionalUser = userRepository.findByEmail(userCredentialsDto.getEmail());
+        if (optionalUser.isEmpty()) {
+            auditLog.record(AuditEvent.of(AuditEventType.SIGN_IN, false, null, userCredentialsDto.getEmail()));
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        User user = optionalUser.get();
+        return CompletableFuture
+                .supplyAsync(() -> passwordEncoder.matches(userCredentialsDto.getPassword(), user.getPassword()),
+                        passwordHashingExecutor)
+                .thenApplyAsync(matches -> {
+                    auditLog.record(AuditEvent.of(AuditEventType.SIGN_IN, matches, user.getUserId(), user.getEmail()));
+                    return matches ? Optional.of(createSession(user)) : Optional.empty();
+                }, applicationTaskExecutor);
+    }
+
+    private JwtAuthenticationDto createSession(User user) {
+        JwtAuthenticationDto authToken = jwtService.generateAuthToken(toTokenSubject(user));
+
+        Instant now = Instant.now();
+        JwtAuthentication session = new JwtAuthentication();
+        session.setUserId(user.getUserId());
+        session.setTokenHash(TokenDigest.of(authToken.getToken()).toHex());
+        session.setTokenExpiresAt(now.plus(JwtService.ACCESS_TOKEN_VALIDITY));
+        session.setRefreshTokenHash(TokenDigest.of(authToken.getRefreshToken()).toHex());
+        session.setExpiresAt(now.plus(JwtService.REFRESH_TOKEN_VALIDITY));
+        session.setCreatedAt(now);
+        session.setUpdatedAt(now);
+        jwtAuthenticationRepository.save(session);
+
+        return authToken;
+    }
+
+    /**
+     * Фазы обновления (поиск сессии, пользователя, подпись токенов, ротация сессии, отзыв старых токенов)
+     * пишутся отдельными спанами {@code refresh.*} и {@code jwt.*}.
+     * Неизвестный, истекший или уже использованный refresh-токен дает пустой результат.
+     * Старая пара отзывается только после ротации сессии, поэтому проигравший гонку запрос ничего не меняет.
+     */
+    @Override
+    public Optional<JwtAuthenticationDto> refreshToken(RefreshTokenDto refreshTokenDto) {
+        String refreshToken = refreshTokenDto.getRefreshToken();
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            auditLog.record(AuditEvent.of(AuditEventType.REFRESH, false, null, null));
+            return Optional.empty();
+        }
+        String refreshTokenHash = TokenDigest.of(refreshToken).toHex();
+        JwtAuthentication session = PhaseObservation.of("refresh.session-lookup", observationRegistry)
+                .observe(() -> findSessionByRefreshTokenHash(refreshTokenHash));
+        if (session == null) {
+            auditLog.record(AuditEvent.of(AuditEventType.REFRESH, false, null, null));
+            return Optional.empty();
+        }
+        User user = PhaseObservation.of("refresh.user-lookup", observationRegistry)
+                .observe(() -> userRepository.findByUserId(session.getUserId()).orElse(null));
+        if (user == null) {
+            auditLog.record(AuditEvent.of(AuditEventType.REFRESH, false, session.getUserId(), null));
+            return Optional.empty();
+        }
+
+        TokenSubject subject = toTokenSubject(user);
+        JwtAuthenticationDto jwtAuthenticationDto = jwtService.signRefreshedToken(subject);
+
+        Instant now = Instant.now();
+        int updated = PhaseObservation.of("refresh.session-rotate", observationRegistry)
+                .observe(() -> jwtAuthenticationRepository.rotateTokens(session.getId(), refreshTokenHash,
+                        TokenDigest.of(jwtAuthenticationDto.getToken()).toHex(),
+                        now.plus(JwtService.ACCESS_TOKEN_VALIDITY),
+                        TokenDigest.of(jwtAuthenticationDto.getRefreshToken()).toHex(),
+                        now.plus(JwtService.REFRESH_TOKEN_VALIDITY),
+                        now));
+        if (updated == 0) {
+            // Refresh-токен уже использован параллельным запросом: старую пару отзывает и аудирует он
+            return Optional.empty();
+        }
+        jwtService.completeRefresh(subject, refreshToken, TokenDigest.fromHex(session.getTokenHash()));
+        auditLog.record(AuditEvent.of(AuditEventType.REFRESH, true, user.getUserId(), user.getEmail()));
+        return Optional.of(jwtAuthenticationDto);
+    }
+
+    @Override
+    public UserDto getUserById(String id) throws ChangeSetPersister.NotFoundException {
+        return userMapper.toDto(userRepository.findByUserId(UUID.fromString(id))
+                .orElseThrow(ChangeSetPersister.NotFoundException::new));
+    }
+
+    @Override
+    public UserDto getUserByEmail(String email) throws Exception {
+        try {
+            User user = findByEmail(email);
+
+            if (jwtAuthenticationRepository.existsByUserIdAndTokenExpiresAtAfter(user.getUserId(), Instant.now())) {
+                return userMapper.toDto(user);
+            }
+            else {
+                throw new ChangeSetPersister.NotFoundException();
+            }
+        }
+        catch (Exception e) {
+            throw new Exception(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> addUser(UserDto userDto) {
+        User user = userMapper.toEntity(userDto);
+        return CompletableFuture
+                .supplyAsync(() -> passwordEncoder.encode(user.getPassword()), passwordHashingExecutor)
+                .thenApplyAsync(encodedPassword -> {
+                    user.setPassword(encodedPassword);
+                    userRepository.save(user);
+                    userDetailsCache.evict(user.getEmail());
+                    return "User added: " + user.toString();
+                }, applicationTaskExecutor);
+    }
+
+    /**
+     * Регистрирует пользователей пачками по {@code user.registration.batch.chunk-size}:
+     * пароли хэшируются параллельно в {@link PasswordHashingExecutor}, вставка идет JDBC batch.
+     * Результат возвращается для каждой строки в порядке запроса.
+     */
+    @Override
+    public List<RegistrationResultDto> addUsers(List<UserDto> userDtos) {
+        if (userDtos.size() > maxBatchSize) {
+            throw new IllegalArgumentException(String.format("Batch size %d exceeds limit %d",
+                    userDtos.size(), maxBatchSize));
+        }
+
+        RegistrationResultDto[] results = new RegistrationResultDto[userDtos.size()];
+        Set<String> seenEmails = new HashSet<>();
+        for (int from = 0; from < userDtos.size(); from += batchChunkSize) {
+            int to = Math.min(from + batchChunkSize, userDtos.size());
+            registerChunk(userDtos, from, to, seenEmails, results);
+        }
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public String revokeAllSessions(String email) {
+        userRepository.incrementTokenVersion(email);
+        jwtAuthenticationRepository.deleteByUserEmail(email);
+        tokenVersionCache.evict(email);
+        userDetailsCache.evict(email);
+        auditLog.record(AuditEvent.of(AuditEventType.SESSIONS_REVOKED, true, null, email));
+        return "All sessions revoked for: " + email;
+    }
+
+    @Scheduled(fixedRate = SESSION_CLEANUP_DELAY)
+    public void deleteExpiredSessions() {
+        jwtAuthenticationRepository.deleteExpired(Instant.now());
+    }
+
+    private void registerChunk(List<UserDto> userDtos, int from, int to, Set<String> seenEmails,
+                               RegistrationResultDto[] results) {
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = from; i < to; i++) {
+            UserDto userDto = userDtos.get(i);
+            String email = userDto.getEmail();
+            if (email == null || email.isBlank() || userDto.getPassword() == null || userDto.getPassword().isEmpty()) {
+                results[i] = new RegistrationResultDto(i, email, RegistrationResultDto.Status.INVALID, null);
+            }
+            else if (!seenEmails.add(email)) {
+                results[i] = new RegistrationResultDto(i, email, RegistrationResultDto.Status.DUPLICATE_EMAIL, null);
+            }
+            else {
+                candidates.put(email, i);
+            }
+        }
+
+        for (String email : userBatchRepository.findExistingEmails(candidates.keySet())) {
+            int index = candidates.remove(email);
+            results[index] = new RegistrationResultDto(index, email, RegistrationResultDto.Status.DUPLICATE_EMAIL, null);
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        List<User> users = new ArrayList<>(candidates.size());
+        for (int index : candidates.values()) {
+            User user = userMapper.toEntity(userDtos.get(index));
+            user.setUserId(UUID.randomUUID());
+            users.add(user);
+        }
+        hashPasswords(users);
+
+        try {
+            userBatchRepository.insertAll(users);
+            for (User user : users) {
+                markCreated(user, candidates.get(user.getEmail()), results);
+            }
+        }
+        catch (DataIntegrityViolationException e) {
+            // Email заняли параллельно с проверкой - пачка откатилась, вставляем по одному
+            for (User user : users) {
+                int index = candidates.get(user.getEmail());
+                try {
+                    userBatchRepository.insert(user);
+                    markCreated(user, index, results);
+                }
+                catch (DuplicateKeyException duplicate) {
+                    results[index] = new RegistrationResultDto(index, user.getEmail(),
+                            RegistrationResultDto.Status.DUPLICATE_EMAIL, null);
+                }
+            }
+        }
+    }
+
+    private void markCreated(User user, int index, RegistrationResultDto[] results) {
+        userDetailsCache.evict(user.getEmail());
+        results[index] = new RegistrationResultDto(index, user.getEmail(),
+                RegistrationResultDto.Status.CREATED, user.getUserId());
+    }
+
+    /**
+     * Делит пользователей на части по числу потоков пула и ждет все части.
+     * Если очередь пула занята, часть хэшируется в вызывающем потоке.
+     */
+    private void hashPasswords(List<User> users) {
+        int parts = Math.min(passwordHashingExecutor.getPoolSize(), users.size());
+        int partSize = (users.size() + parts - 1) / parts;
+        List<CompletableFuture<Void>> futures = new ArrayList<>(parts);
+        for (int from = 0; from < users.size(); from += partSize) {
+            List<User> part = users.subList(from, Math.min(from + partSize, users.size()));
+            Runnable task = () -> part.forEach(user -> user.setPassword(passwordEncoder.encode(user.getPassword())));
+            try {
+                futures.add(CompletableFuture.runAsync(task, passwordHashingExecutor));
+            }
+            catch (RejectedExecutionException e) {
+                task.run();
+            }
+        }
+        futures.forEach(CompletableFuture::join);
+    }
+
+    private TokenSubject toTokenSubject(User user) {
+        List<String> authorities = new CustomUserDetails(user).getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        return new TokenSubject(user.getUserId(), user.getEmail(), user.getTokenVersion(), authorities);
+    }
+
+    private User findByEmail(String email) throws Exception {
+        return userRepository.findByEmail(email).orElseThrow(() ->
+                new Exception(String.format("User with email % not found", email)));
+    }
+
+    /**
+     * @return действующая сессия или null
+     */
+    private JwtAuthentication findSessionByRefreshTokenHash(String refreshTokenHash) {
+        return jwtAuthenticationRepository.findByRefreshTokenHash(refreshTokenHash)
+                .filter(session -> session.getExpiresAt().isAfter(Instant.now()))
+                .orElse(null);
+    }
+}
+
+
+//    @Override
+//    public JwtAuthenticationDto refreshToken(RefreshTokenDto refreshTokenDto) throws Exception {
+//        String refreshToken = refreshTokenDto.getRefreshToken();
+//        if(refreshToken != null && jwtService.validateJwtToken(refreshToken)) {
+//            User user = findByEmail(jwtService.getEmailFromToken(refreshToken));
+//            JwtAuthenticationDto jwtAuthenticationDto = jwtService.refreshBaseToken(user.getEmail());
+//            user.setToken(jwtAuthenticationDto.getToken());
+//            user.setRefreshToken(jwtAuthenticationDto.getRefreshToken());
+//            userRepository.save(user);
+//
+//            return jwtService.refreshBaseToken(user.getEmail());
+//        }
+//        throw new AuthenticationException("Invalid refresh token");
+//    }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package org.arkasha.jwtspringmaven.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Спаны фаз обработки запроса: одно имя {@code auth.phase}, фаза - в теге {@code phase}
+ * и в имени спана. Так все фазы видны одним таймером в метриках и отдельными спанами в трассе.
+ */
+public final class PhaseObservation {
+    public static final String NAME = "auth.phase";
+
+    private PhaseObservation() {
+    }
+
+    public static Observation of(String phase, ObservationRegistry observationRegistry) {
+        return Observation.createNotStarted(NAME, observationRegistry)
+                .contextualName(phase)
+                .lowCardinalityKeyValue("phase", phase);
+    }
+}
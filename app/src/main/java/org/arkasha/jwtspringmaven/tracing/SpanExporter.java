@@ -0,0 +1,145 @@
+package org.arkasha.jwtspringmaven.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Выгрузка завершенных спанов без коллектора: одна JSON-строка на спан.
+ * <p>
+ * {@code tracing.export.mode}: {@code none} - не выгружать, {@code log} - в логгер
+ * {@code org.arkasha.jwtspringmaven.tracing.spans} уровня INFO, {@code file} - в файл
+ * {@code tracing.export.file} с дозаписью. Файл сбрасывается на диск раз в секунду и при остановке;
+ * сброс идет в собственном потоке, а не через {@code @Scheduled}, чтобы не порождать свои спаны.
+ * Выгружаются только сэмплированные спаны ({@code management.tracing.sampling.probability}).
+ */
+@Component
+public class SpanExporter extends SpanHandler {
+    private static final Logger LOGGER = LogManager.getLogger(SpanExporter.class);
+    private static final Logger SPANS = LogManager.getLogger("org.arkasha.jwtspringmaven.tracing.spans");
+
+    private final ObjectMapper objectMapper;
+    private final String mode;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final BufferedWriter writer;
+    private final ScheduledExecutorService flusher;
+
+    public SpanExporter(ObjectMapper objectMapper,
+                        @Value("${tracing.export.mode:none}") String mode,
+                        @Value("${tracing.export.file:spans.jsonl}") String file) throws IOException {
+        this.objectMapper = objectMapper;
+        this.mode = mode;
+        this.writer = "file".equals(mode)
+                ? Files.newBufferedWriter(Path.of(file), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                : null;
+        if (writer != null) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "span-exporter-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, 1, 1, TimeUnit.SECONDS);
+        }
+        else {
+            this.flusher = null;
+        }
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if ("none".equals(mode) || cause == Cause.ABANDONED || !Boolean.TRUE.equals(context.sampled())) {
+            return true;
+        }
+
+        String line;
+        try {
+            line = objectMapper.writeValueAsString(toMap(span));
+        }
+        catch (JsonProcessingException e) {
+            LOGGER.warn("Span {} could not be serialized", span.id(), e);
+            return true;
+        }
+
+        if (writer == null) {
+            SPANS.info(line);
+            return true;
+        }
+        writeLock.lock();
+        try {
+            writer.write(line);
+            writer.newLine();
+        }
+        catch (IOException e) {
+            LOGGER.warn("Span {} could not be written", span.id(), e);
+        }
+        finally {
+            writeLock.unlock();
+        }
+        return true;
+    }
+
+    // Время в микросекундах epoch, как в Zipkin
+    private static Map<String, Object> toMap(MutableSpan span) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("traceId", span.traceId());
+        map.put("spanId", span.id());
+        map.put("parentId", span.parentId());
+        map.put("name", span.name());
+        map.put("timestamp", span.startTimestamp());
+        map.put("duration", span.finishTimestamp() - span.startTimestamp());
+        map.put("tags", span.tags());
+        if (span.error() != null) {
+            map.put("error", span.error().getClass().getName());
+        }
+        return map;
+    }
+
+    private void flush() {
+        writeLock.lock();
+        try {
+            writer.flush();
+        }
+        catch (IOException e) {
+            LOGGER.warn("Span file could not be flushed", e);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        flusher.shutdown();
+        writeLock.lock();
+        try {
+            writer.close();
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+}
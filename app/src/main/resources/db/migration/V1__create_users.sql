@@ -0,0 +1,9 @@
+-- Только создает отсутствующую таблицу; базу, созданную через ddl-auto=update, переносит V5
+CREATE TABLE IF NOT EXISTS users (
+    user_id       UUID         NOT NULL PRIMARY KEY,
+    first_name    VARCHAR(255),
+    last_name     VARCHAR(255),
+    email         VARCHAR(255),
+    password      VARCHAR(255),
+    token_version INTEGER      DEFAULT 0 NOT NULL
+);
@@ -0,0 +1,12 @@
+-- Только создает отсутствующую таблицу; старую таблицу с токенами в открытом виде переносит V5,
+-- индексы - V6
+CREATE TABLE IF NOT EXISTS "jwt-authentication" (
+    jwt_id             UUID                     NOT NULL PRIMARY KEY,
+    user_id            UUID                     NOT NULL REFERENCES users (user_id) ON DELETE CASCADE,
+    token_hash         VARCHAR(32)              NOT NULL,
+    token_expires_at   TIMESTAMP WITH TIME ZONE NOT NULL,
+    refresh_token_hash VARCHAR(32)              NOT NULL,
+    expires_at         TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at         TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at         TIMESTAMP WITH TIME ZONE NOT NULL
+);
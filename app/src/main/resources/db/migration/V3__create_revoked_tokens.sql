@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    digest_high BIGINT NOT NULL,
+    digest_low  BIGINT NOT NULL,
+    expires_at  BIGINT NOT NULL,
+    CONSTRAINT uk_revoked_tokens_digest UNIQUE (digest_high, digest_low)
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS audit_events (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type   VARCHAR(32)              NOT NULL,
+    success      BOOLEAN                  NOT NULL,
+    user_id      UUID,
+    email        VARCHAR(255),
+    token_digest VARCHAR(32),
+    occurred_at  TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_audit_events_occurred_at ON audit_events (occurred_at);
+CREATE INDEX IF NOT EXISTS idx_audit_events_user_id ON audit_events (user_id);
@@ -0,0 +1,6 @@
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_email ON users (email);
+
+CREATE INDEX IF NOT EXISTS idx_jwt_authentication_user_id ON "jwt-authentication" (user_id);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_jwt_authentication_refresh_token_hash ON "jwt-authentication" (refresh_token_hash);
+CREATE INDEX IF NOT EXISTS idx_jwt_authentication_token_hash ON "jwt-authentication" (token_hash);
+CREATE INDEX IF NOT EXISTS idx_jwt_authentication_expires_at ON "jwt-authentication" (expires_at);
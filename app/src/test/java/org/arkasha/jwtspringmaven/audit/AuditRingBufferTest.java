@@ -0,0 +1,89 @@
+package org.arkasha.jwtspringmaven.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditRingBufferTest {
+
+    private static AuditEvent event(int index) {
+        return AuditEvent.of(AuditEventType.SIGN_IN, true, null, "user-" + index);
+    }
+
+    @Test
+    void offer_shouldRejectWhenFull() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(event(i)));
+        }
+
+        assertFalse(buffer.offer(event(4)));
+        assertEquals(4, buffer.size());
+    }
+
+    @Test
+    void drainTo_shouldKeepOrderAcrossWrapAround() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        List<AuditEvent> drained = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.offer(event(i)));
+            if (i % 3 == 2) {
+                buffer.drainTo(drained, 3);
+            }
+        }
+        buffer.drainTo(drained, 100);
+
+        assertEquals(10, drained.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("user-" + i, drained.get(i).email());
+        }
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void drainTo_shouldReceiveEveryEventFromConcurrentProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        AuditRingBuffer buffer = new AuditRingBuffer(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    AuditEvent event = new AuditEvent(AuditEventType.REFRESH, true, UUID.randomUUID(), null, null, null);
+                    while (!buffer.offer(event)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        Set<UUID> received = new HashSet<>();
+        List<AuditEvent> batch = new ArrayList<>();
+        while (received.size() < producers * perProducer) {
+            buffer.drainTo(batch, 256);
+            batch.forEach(event -> assertTrue(received.add(event.userId())));
+            batch.clear();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, buffer.size());
+    }
+}
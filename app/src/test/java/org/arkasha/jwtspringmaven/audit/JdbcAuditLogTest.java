@@ -0,0 +1,98 @@
+package org.arkasha.jwtspringmaven.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.arkasha.tokenverifier.TokenDigest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcAuditLogTest {
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("db/migration/V4__create_audit_events.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    private JdbcAuditLog newAuditLog(int capacity, JdbcAuditLog.OverflowPolicy policy) {
+        return new JdbcAuditLog(jdbcTemplate, true, capacity, 3,
+                Duration.ofMillis(50), policy, Duration.ofSeconds(5));
+    }
+
+    private int rows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_events", Integer.class);
+    }
+
+    @Test
+    void close_shouldFlushBufferedEvents() throws InterruptedException {
+        JdbcAuditLog auditLog = newAuditLog(64, JdbcAuditLog.OverflowPolicy.DROP);
+        auditLog.start();
+        UUID userId = UUID.randomUUID();
+        TokenDigest digest = TokenDigest.of("token");
+
+        for (int i = 0; i < 10; i++) {
+            auditLog.record(AuditEvent.of(AuditEventType.SIGN_IN, i % 2 == 0, userId, "test@gmail.com"));
+        }
+        auditLog.record(AuditEvent.tokenRevoked(userId, "test@gmail.com", digest));
+        auditLog.close();
+
+        assertEquals(11, rows());
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM audit_events WHERE event_type = 'SIGN_IN' AND success", Integer.class));
+        assertEquals(digest.toHex(), jdbcTemplate.queryForObject(
+                "SELECT token_digest FROM audit_events WHERE event_type = 'TOKEN_REVOKED'", String.class));
+    }
+
+    @Test
+    void record_shouldDropAndCountWhenBufferIsFull() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Поток записи не запущен, буфер только наполняется
+        JdbcAuditLog auditLog = newAuditLog(4, JdbcAuditLog.OverflowPolicy.DROP);
+        auditLog.bindTo(meterRegistry);
+
+        for (int i = 0; i < 6; i++) {
+            auditLog.record(AuditEvent.of(AuditEventType.REFRESH, false, null, null));
+        }
+
+        assertEquals(2, meterRegistry.get("audit.events.dropped").functionCounter().count());
+        assertEquals(4, meterRegistry.get("audit.buffer.size").gauge().value());
+
+        auditLog.start();
+        auditLog.close();
+        assertEquals(4, rows());
+        assertEquals(4, meterRegistry.get("audit.events.written").functionCounter().count());
+    }
+
+    @Test
+    void record_shouldWaitForSpaceWhenPolicyIsBlock() throws InterruptedException {
+        JdbcAuditLog auditLog = newAuditLog(4, JdbcAuditLog.OverflowPolicy.BLOCK);
+        auditLog.start();
+
+        for (int i = 0; i < 100; i++) {
+            auditLog.record(AuditEvent.of(AuditEventType.SESSIONS_REVOKED, true, null, "test@gmail.com"));
+        }
+        auditLog.close();
+
+        assertEquals(100, rows());
+    }
+}
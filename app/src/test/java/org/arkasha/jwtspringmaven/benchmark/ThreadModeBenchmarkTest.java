@@ -0,0 +1,148 @@
+package org.arkasha.jwtspringmaven.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.arkasha.jwtspringmaven.JwtSpringMavenApplication;
+import org.arkasha.jwtspringmaven.dto.JwtAuthenticationDto;
+import org.arkasha.jwtspringmaven.dto.UserCredentialsDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сравнение режимов потоков на {@code GET /user/{id}}: каждый запрос проходит JwtFilter
+ * с походом в базу за версией токена. Tomcat ограничен {@code benchmark.tomcat-threads} потоками,
+ * клиент держит {@code benchmark.concurrency} запросов в полете.
+ * <p>
+ * По умолчанию база - H2 в памяти; для реальных сетевых задержек задайте
+ * {@code benchmark.datasource.url}, {@code .username} и {@code .password}.
+ * Запуск: {@code mvn test -Pbenchmark} на JDK 21.
+ */
+@Tag("benchmark")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class ThreadModeBenchmarkTest {
+    private static final Logger LOGGER = LogManager.getLogger(ThreadModeBenchmarkTest.class);
+
+    // Пользователь из data/insertData.sql
+    private static final String USER_ID = "550e8400-e29b-41d4-a716-446655440000";
+    private static final String EMAIL = "test@gmail.com";
+    private static final String PASSWORD = "12345";
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 400);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20000);
+    private static final int WARMUP_REQUESTS = Integer.getInteger("benchmark.warmup-requests", 5000);
+    private static final int TOMCAT_THREADS = Integer.getInteger("benchmark.tomcat-threads", 50);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void compareThreadModes() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        LOGGER.info(String.format("%-9s %10s %10s %10s %8s", "mode", "req/s", "p50 ms", "p99 ms", "errors"));
+        LOGGER.info(platform.format("platform"));
+        LOGGER.info(virtual.format("virtual"));
+
+        assertEquals(0, platform.errors());
+        assertEquals(0, virtual.errors());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JwtSpringMavenApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "spring.datasource.url=" + System.getProperty("benchmark.datasource.url",
+                                "jdbc:h2:mem:benchmark-" + mode),
+                        "spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "sa"),
+                        "spring.datasource.password=" + System.getProperty("benchmark.datasource.password", ""),
+                        "logging.level.root=WARN",
+                        "logging.level.org.arkasha.jwtspringmaven.benchmark=INFO")
+                .run()) {
+            ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+                    new ClassPathResource("data/cleanUp.sql"), new ClassPathResource("data/insertData.sql"));
+            populator.execute(context.getBean(DataSource.class));
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String token = signIn(port);
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/user/" + USER_ID))
+                    .header("Authorization", "Bearer " + token)
+                    .build();
+
+            fire(request, WARMUP_REQUESTS);
+            return fire(request, REQUESTS);
+        }
+    }
+
+    private String signIn(int port) throws Exception {
+        String credentials = objectMapper.writeValueAsString(new UserCredentialsDto(EMAIL, PASSWORD));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/auth/sign-in"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        // Иначе все запросы замера получили бы 403 и сравнивались бы отказы, а не режимы потоков
+        assertEquals(200, response.statusCode(), "sign-in failed: " + response.body());
+        return objectMapper.readValue(response.body(), JwtAuthenticationDto.class).getToken();
+    }
+
+    private Result fire(HttpRequest request, int count) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        AtomicInteger errors = new AtomicInteger();
+        long[] latencies = new long[count];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[count];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            inFlight.acquire();
+            int index = i;
+            long sent = System.nanoTime();
+            futures[i] = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        CompletableFuture.allOf(futures).exceptionally(error -> null).join();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(count * 1e9 / elapsed,
+                latencies[count / 2] / 1e6,
+                latencies[(int) (count * 0.99)] / 1e6,
+                errors.get());
+    }
+
+    private record Result(double throughput, double p50Millis, double p99Millis, int errors) {
+        String format(String mode) {
+            return String.format("%-9s %10.0f %10.2f %10.2f %8d", mode, throughput, p50Millis, p99Millis, errors);
+        }
+    }
+}
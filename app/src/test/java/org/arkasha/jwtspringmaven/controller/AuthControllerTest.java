@@ -0,0 +1,179 @@
+package org.arkasha.jwtspringmaven.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.arkasha.jwtspringmaven.dto.JwtAuthenticationDto;
+import org.arkasha.jwtspringmaven.dto.TokenIntrospectionRequestDto;
+import org.arkasha.jwtspringmaven.dto.UserCredentialsDto;
+import org.arkasha.jwtspringmaven.security.jwt.JwtService;
+import org.arkasha.jwtspringmaven.security.jwt.TokenSubject;
+import org.arkasha.jwtspringmaven.security.revocation.RevocationStore;
+import org.arkasha.tokenverifier.TokenDigest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+@AutoConfigureMockMvc
+class AuthControllerTest {
+    private static final String GATEWAY_CREDENTIALS = basic("gateway", "test-introspection-secret");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RevocationStore revocationStore;
+
+    @Test
+    @Sql(scripts = {"/data/cleanUp.sql", "/data/insertData.sql"})
+    void singInTest() throws Exception {
+        UserCredentialsDto userCredentialsDto = new UserCredentialsDto();
+        userCredentialsDto.setEmail("test@gmail.com");
+        userCredentialsDto.setPassword("12345dsafasfasfasfa");
+
+        String userJson = objectMapper.writeValueAsString(userCredentialsDto);
+
+        String tokenJson = mockMvc.perform(MockMvcRequestBuilders.post("/auth/sign-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(userJson))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JwtAuthenticationDto jwtAuthenticationDto = objectMapper.readValue(tokenJson, JwtAuthenticationDto.class);
+
+        Assertions.assertEquals(userCredentialsDto.getEmail(), jwtService.getEmailFromToken(jwtAuthenticationDto.getToken()));
+    }
+
+    @Test
+    @Sql(scripts = {"/data/cleanUp.sql", "/data/insertData.sql"})
+    void refresh() {
+    }
+
+    @Test
+    @Sql(scripts = {"/data/cleanUp.sql", "/data/insertData.sql"})
+    void introspect_shouldReportEachTokenInRequestOrder() throws Exception {
+        UUID userId = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+        String active = jwtService.generateJwtToken(new TokenSubject(userId, "test@gmail.com", 0, List.of()));
+        String revoked = jwtService.generateJwtToken(new TokenSubject(userId, "test@gmail.com", 0, List.of()));
+        revocationStore.revoke(TokenDigest.of(revoked), Instant.now().plusSeconds(300));
+        String staleVersion = jwtService.generateJwtToken(new TokenSubject(userId, "test@gmail.com", 7, List.of()));
+
+        String body = objectMapper.writeValueAsString(new TokenIntrospectionRequestDto(
+                List.of(active, revoked, staleVersion, "not-a-jwt")));
+        mockMvc.perform(post("/auth/introspect")
+                        .header(HttpHeaders.AUTHORIZATION, GATEWAY_CREDENTIALS)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].active").value(true))
+                .andExpect(jsonPath("$[0].sub").value("test@gmail.com"))
+                .andExpect(jsonPath("$[0].exp").isNumber())
+                .andExpect(jsonPath("$[0].revoked").value(false))
+                .andExpect(jsonPath("$[1].active").value(false))
+                .andExpect(jsonPath("$[1].revoked").value(true))
+                .andExpect(jsonPath("$[2].active").value(false))
+                .andExpect(jsonPath("$[2].revoked").value(true))
+                .andExpect(jsonPath("$[3].active").value(false))
+                .andExpect(jsonPath("$[3].sub").doesNotExist())
+                .andExpect(jsonPath("$[3].revoked").value(false));
+    }
+
+    @Test
+    @Sql(scripts = {"/data/cleanUp.sql", "/data/insertData.sql"})
+    void introspect_shouldVerifyLargeBatchInParallel() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tokens.add(jwtService.generateJwtToken(new TokenSubject(null, "test@gmail.com", 0, List.of())));
+        }
+
+        mockMvc.perform(post("/auth/introspect")
+                        .header(HttpHeaders.AUTHORIZATION, GATEWAY_CREDENTIALS)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TokenIntrospectionRequestDto(tokens))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(100)))
+                .andExpect(jsonPath("$[?(@.active == false)]", hasSize(0)));
+    }
+
+    @Test
+    @Sql(scripts = {"/data/cleanUp.sql", "/data/insertData.sql"})
+    void introspect_shouldRejectAnonymousClient() throws Exception {
+        mockMvc.perform(post("/auth/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(introspectionBody(1)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @Sql(scripts = {"/data/cleanUp.sql", "/data/insertData.sql"})
+    void introspect_shouldRejectWrongClientSecret() throws Exception {
+        mockMvc.perform(post("/auth/introspect")
+                        .header(HttpHeaders.AUTHORIZATION, basic("gateway", "wrong-secret"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(introspectionBody(1)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @Sql(scripts = {"/data/cleanUp.sql", "/data/insertData.sql"})
+    void introspect_shouldForbidUserToken() throws Exception {
+        String userToken = jwtService.generateJwtToken(new TokenSubject(null, "test@gmail.com", 0, List.of()));
+
+        mockMvc.perform(post("/auth/introspect")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(introspectionBody(1)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @Sql(scripts = {"/data/cleanUp.sql", "/data/insertData.sql"})
+    void introspect_shouldRejectBatchOverLimit() throws Exception {
+        // jwt.introspection.max-batch-size в application-test.yml
+        mockMvc.perform(post("/auth/introspect")
+                        .header(HttpHeaders.AUTHORIZATION, GATEWAY_CREDENTIALS)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(introspectionBody(201)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String introspectionBody(int size) throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            tokens.add("not-a-jwt");
+        }
+        return objectMapper.writeValueAsString(new TokenIntrospectionRequestDto(tokens));
+    }
+
+    private static String basic(String clientId, String secret) {
+        return "Basic " + Base64.getEncoder().encodeToString(
+                (clientId + ":" + secret).getBytes(StandardCharsets.UTF_8));
+    }
+}
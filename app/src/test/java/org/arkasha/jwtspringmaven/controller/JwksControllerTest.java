@@ -0,0 +1,59 @@
+package org.arkasha.jwtspringmaven.controller;
+
+import org.arkasha.jwtspringmaven.security.jwt.JwtService;
+import org.arkasha.jwtspringmaven.security.jwt.TokenSubject;
+import org.arkasha.jwtspringmaven.security.signing.SigningKeyRing;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"spring.profiles.active=test", "jwt.signing.mode=ec"})
+@AutoConfigureMockMvc
+class JwksControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private SigningKeyRing signingKeyRing;
+
+    @Test
+    void jwks_shouldPublishSigningKeyWithoutAuthentication() throws Exception {
+        String token = jwtService.generateJwtToken(new TokenSubject(UUID.randomUUID(), "test@gmail.com", 0, List.of()));
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+                StandardCharsets.UTF_8);
+        assertTrue(header.contains(signingKeyRing.current().keyId()));
+
+        MvcResult result = mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=300")))
+                .andExpect(jsonPath("$.keys[*].kid", hasItem(signingKeyRing.current().keyId())))
+                .andExpect(jsonPath("$.keys[0].kty").value("EC"))
+                .andExpect(jsonPath("$.keys[0].crv").value("P-256"))
+                .andReturn();
+
+        mockMvc.perform(get("/.well-known/jwks.json")
+                        .header(HttpHeaders.IF_NONE_MATCH, result.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -11,9 +11,14 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.util.List;
+
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(properties = "spring.profiles.active=test")
@@ -33,9 +38,12 @@ class UserControllerTest {
 
         String loginJson = objectMapper.writeValueAsString(userCredentialsDto);
 
-        String tokens = mockMvc.perform(MockMvcRequestBuilders.post("/auth/sign-in")
+        MvcResult signIn = mockMvc.perform(MockMvcRequestBuilders.post("/auth/sign-in")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(loginJson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String tokens = mockMvc.perform(asyncDispatch(signIn))
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
@@ -56,9 +64,12 @@ class UserControllerTest {
 
         String userJson = objectMapper.writeValueAsString(userDto);
 
-        mockMvc.perform(MockMvcRequestBuilders.post("/user/registration")
+        MvcResult registration = mockMvc.perform(MockMvcRequestBuilders.post("/user/registration")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(userJson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(registration))
                 .andExpect(status().isOk());
     }
 
@@ -84,4 +95,49 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.email").value("test@gmail.com"));
 
     }
+
+    @Test
+    @Sql(scripts = {"/data/cleanUp.sql", "/data/insertData.sql"})
+    void revokeAllSessions() throws Exception {
+        String token = getAccessToken();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/user/revoke-sessions")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/550e8400-e29b-41d4-a716-446655440000")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @Sql(scripts = {"/data/cleanUp.sql", "/data/insertData.sql"})
+    void createUsers() throws Exception {
+        String token = getAccessToken();
+        List<UserDto> userDtos = List.of(
+                new UserDto("new", "user", "new@gmail.com", "111222333"),
+                new UserDto("existing", "user", "test@gmail.com", "111222333"),
+                new UserDto("repeated", "user", "new@gmail.com", "111222333"),
+                new UserDto("no", "password", "nopassword@gmail.com", null));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/user/registration/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDtos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("DUPLICATE_EMAIL"))
+                .andExpect(jsonPath("$[2].status").value("DUPLICATE_EMAIL"))
+                .andExpect(jsonPath("$[3].status").value("INVALID"));
+
+        UserCredentialsDto credentials = new UserCredentialsDto();
+        credentials.setEmail("new@gmail.com");
+        credentials.setPassword("111222333");
+        MvcResult signIn = mockMvc.perform(MockMvcRequestBuilders.post("/auth/sign-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(credentials)))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(signIn))
+                .andExpect(status().isOk());
+    }
 }
\ No newline at end of file
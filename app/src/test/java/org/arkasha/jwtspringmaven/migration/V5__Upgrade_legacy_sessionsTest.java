@@ -0,0 +1,117 @@
+package org.arkasha.jwtspringmaven.migration;
+
+import org.arkasha.tokenverifier.TokenDigest;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class V5__Upgrade_legacy_sessionsTest {
+    private static final UUID USER_ID = UUID.fromString("6f1c2d9e-1b7a-4c1e-9d0a-3e5f7a9b1c2d");
+    private static final UUID EXPIRED_USER_ID = UUID.fromString("0a1b2c3d-4e5f-4a6b-8c7d-9e0f1a2b3c4d");
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        // Схема, которую создавал ddl-auto=update до перехода на Flyway
+        jdbcTemplate.execute("CREATE TABLE users (user_id UUID NOT NULL PRIMARY KEY, first_name VARCHAR(255),"
+                + " last_name VARCHAR(255), email VARCHAR(255), password VARCHAR(255), token VARCHAR(255),"
+                + " \"refresh-token\" VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE \"jwt-authentication\" (jwt_id UUID NOT NULL PRIMARY KEY,"
+                + " token VARCHAR(255), \"refresh-token\" VARCHAR(255))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    private void migrate() {
+        Flyway.configure()
+                .dataSource(database)
+                .locations("classpath:db/migration", "classpath:org/arkasha/jwtspringmaven/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+    }
+
+    private static String token(Instant expiresAt, String subject) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String payload = "{\"sub\":\"" + subject + "\",\"exp\":" + expiresAt.getEpochSecond() + "}";
+        return encoder.encodeToString("{\"alg\":\"HS384\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
+
+    @Test
+    void migrate_shouldMoveLiveSessionsOutOfUsers() {
+        Instant tokenExpiresAt = Instant.now().plusSeconds(300);
+        Instant refreshExpiresAt = Instant.now().plusSeconds(3600);
+        String token = token(tokenExpiresAt, "test@gmail.com");
+        String refreshToken = token(refreshExpiresAt, "test@gmail.com");
+        jdbcTemplate.update("INSERT INTO users (user_id, email, password, token, \"refresh-token\")"
+                + " VALUES (?, 'test@gmail.com', 'hash', ?, ?)", USER_ID, token, refreshToken);
+        jdbcTemplate.update("INSERT INTO users (user_id, email, password, token, \"refresh-token\")"
+                        + " VALUES (?, 'expired@gmail.com', 'hash', ?, ?)", EXPIRED_USER_ID,
+                token(Instant.now().minusSeconds(3600), "expired@gmail.com"),
+                token(Instant.now().minusSeconds(60), "expired@gmail.com"));
+        jdbcTemplate.update("INSERT INTO \"jwt-authentication\" (jwt_id, token, \"refresh-token\") VALUES (?, 'a', 'b')",
+                UUID.randomUUID());
+
+        migrate();
+
+        Map<String, Object> session = jdbcTemplate.queryForMap("SELECT * FROM \"jwt-authentication\"");
+        assertEquals(USER_ID, session.get("USER_ID"));
+        assertEquals(TokenDigest.of(token).toHex(), session.get("TOKEN_HASH"));
+        assertEquals(TokenDigest.of(refreshToken).toHex(), session.get("REFRESH_TOKEN_HASH"));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT token_version FROM users WHERE user_id = ?",
+                Integer.class, USER_ID));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.columns"
+                + " WHERE column_name IN ('TOKEN', 'refresh-token')", Integer.class));
+    }
+
+    @Test
+    void migrate_shouldCascadeSessionsOnUserDelete() {
+        jdbcTemplate.update("INSERT INTO users (user_id, email, password, token, \"refresh-token\")"
+                        + " VALUES (?, 'test@gmail.com', 'hash', ?, ?)", USER_ID,
+                token(Instant.now().plusSeconds(300), "test@gmail.com"),
+                token(Instant.now().plusSeconds(3600), "test@gmail.com"));
+
+        migrate();
+        jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", USER_ID);
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"jwt-authentication\"", Integer.class));
+    }
+
+    @Test
+    void migrate_shouldCreateSchemaOnEmptyDatabase() {
+        jdbcTemplate.execute("DROP TABLE \"jwt-authentication\"");
+        jdbcTemplate.execute("DROP TABLE users");
+
+        migrate();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"jwt-authentication\"", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.indexes"
+                + " WHERE index_name = 'IDX_JWT_AUTHENTICATION_REFRESH_TOKEN_HASH'", Integer.class));
+    }
+}
@@ -0,0 +1,102 @@
+package org.arkasha.jwtspringmaven.security;
+
+import org.arkasha.jwtspringmaven.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionCacheTest {
+    private static final String EMAIL = "test@gmail.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    void isCurrent_shouldCoalesceConcurrentMisses() throws Exception {
+        TokenVersionCache cache = new TokenVersionCache(userRepository, Duration.ofMinutes(1), 100);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findTokenVersionByEmail(EMAIL)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.of(3);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            CompletableFuture<Boolean> first =
+                    CompletableFuture.supplyAsync(() -> cache.isCurrent(EMAIL, 3), executor);
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> second =
+                    CompletableFuture.supplyAsync(() -> cache.isCurrent(EMAIL, 3), executor);
+            CompletableFuture<Boolean> stale =
+                    CompletableFuture.supplyAsync(() -> cache.isCurrent(EMAIL, 2), executor);
+            release.countDown();
+
+            assertTrue(first.get(5, TimeUnit.SECONDS));
+            assertTrue(second.get(5, TimeUnit.SECONDS));
+            assertFalse(stale.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(userRepository, times(1)).findTokenVersionByEmail(EMAIL);
+    }
+
+    @Test
+    void isCurrent_shouldKeepMostEntriesWhenFull() {
+        TokenVersionCache cache = new TokenVersionCache(userRepository, Duration.ofMinutes(1), 10);
+        when(userRepository.findTokenVersionByEmail(anyString())).thenReturn(Optional.of(0));
+        for (int i = 0; i < 11; i++) {
+            cache.isCurrent("user-" + i + "@gmail.com", 0);
+        }
+        cache.isCurrent("user-11@gmail.com", 0);
+        clearInvocations(userRepository);
+
+        // Вытесняется часть кэша, а не весь кэш разом
+        for (int i = 0; i < 12; i++) {
+            cache.isCurrent("user-" + i + "@gmail.com", 0);
+        }
+        int reloaded = mockingDetails(userRepository).getInvocations().size();
+        assertTrue(reloaded < 12, "reloaded " + reloaded);
+    }
+
+    @Test
+    void isCurrent_shouldNotCacheMissingUser() {
+        TokenVersionCache cache = new TokenVersionCache(userRepository, Duration.ofMinutes(1), 100);
+        when(userRepository.findTokenVersionByEmail(EMAIL))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(0));
+
+        assertFalse(cache.isCurrent(EMAIL, 0));
+        assertTrue(cache.isCurrent(EMAIL, 0));
+        verify(userRepository, times(2)).findTokenVersionByEmail(EMAIL);
+    }
+
+    @Test
+    void evict_shouldForceReload() {
+        TokenVersionCache cache = new TokenVersionCache(userRepository, Duration.ofMinutes(1), 100);
+        when(userRepository.findTokenVersionByEmail(EMAIL))
+                .thenReturn(Optional.of(0))
+                .thenReturn(Optional.of(1));
+
+        assertTrue(cache.isCurrent(EMAIL, 0));
+        cache.evict(EMAIL);
+
+        assertFalse(cache.isCurrent(EMAIL, 0));
+        assertTrue(cache.isCurrent(EMAIL, 1));
+    }
+}
@@ -0,0 +1,109 @@
+package org.arkasha.jwtspringmaven.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.arkasha.jwtspringmaven.entity.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsCacheTest {
+    private static final String EMAIL = "test@gmail.com";
+
+    @Mock
+    private CustomUserServiceImpl customUserService;
+
+    private UserDetailsCache newCache(Duration ttl) {
+        return new UserDetailsCache(customUserService, new SimpleMeterRegistry(), ttl, 100);
+    }
+
+    private static CustomUserDetails details() {
+        User user = new User();
+        user.setEmail(EMAIL);
+        return new CustomUserDetails(user);
+    }
+
+    @Test
+    void loadUserByUsername_shouldCoalesceConcurrentMisses() throws Exception {
+        UserDetailsCache cache = newCache(Duration.ofMinutes(1));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CustomUserDetails details = details();
+        when(customUserService.loadUserByUsername(EMAIL)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return details;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CompletableFuture<CustomUserDetails> first =
+                    CompletableFuture.supplyAsync(() -> cache.loadUserByUsername(EMAIL), executor);
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            CompletableFuture<CustomUserDetails> second =
+                    CompletableFuture.supplyAsync(() -> cache.loadUserByUsername(EMAIL), executor);
+            CompletableFuture<CustomUserDetails> third =
+                    CompletableFuture.supplyAsync(() -> cache.loadUserByUsername(EMAIL), executor);
+            release.countDown();
+
+            assertSame(details, first.get(5, TimeUnit.SECONDS));
+            assertSame(details, second.get(5, TimeUnit.SECONDS));
+            assertSame(details, third.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(customUserService, times(1)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void loadUserByUsername_shouldReloadAfterTtl() throws Exception {
+        UserDetailsCache cache = newCache(Duration.ofMillis(50));
+        when(customUserService.loadUserByUsername(EMAIL)).thenReturn(details());
+
+        cache.loadUserByUsername(EMAIL);
+        cache.loadUserByUsername(EMAIL);
+        verify(customUserService, times(1)).loadUserByUsername(EMAIL);
+
+        Thread.sleep(100);
+        cache.loadUserByUsername(EMAIL);
+        verify(customUserService, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void loadUserByUsername_shouldNotCacheFailedLoad() {
+        UserDetailsCache cache = newCache(Duration.ofMinutes(1));
+        CustomUserDetails details = details();
+        when(customUserService.loadUserByUsername(EMAIL))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(details);
+
+        assertThrows(QueryTimeoutException.class, () -> cache.loadUserByUsername(EMAIL));
+
+        assertSame(details, cache.loadUserByUsername(EMAIL));
+        verify(customUserService, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void evict_shouldForceReload() {
+        UserDetailsCache cache = newCache(Duration.ofMinutes(1));
+        when(customUserService.loadUserByUsername(EMAIL)).thenReturn(details());
+
+        cache.loadUserByUsername(EMAIL);
+        cache.evict(EMAIL);
+        cache.loadUserByUsername(EMAIL);
+
+        verify(customUserService, times(2)).loadUserByUsername(EMAIL);
+    }
+}
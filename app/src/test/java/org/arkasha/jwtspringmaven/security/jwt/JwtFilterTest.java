@@ -0,0 +1,108 @@
+package org.arkasha.jwtspringmaven.security.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.arkasha.jwtspringmaven.entity.User;
+import org.arkasha.jwtspringmaven.repository.UserRepository;
+import org.arkasha.jwtspringmaven.security.CustomUserDetails;
+import org.arkasha.jwtspringmaven.security.CustomUserServiceImpl;
+import org.arkasha.jwtspringmaven.security.JwtPrincipal;
+import org.arkasha.jwtspringmaven.security.TokenVersionCache;
+import org.arkasha.jwtspringmaven.security.UserDetailsCache;
+import org.arkasha.tokenverifier.TokenStatus;
+import org.arkasha.tokenverifier.VerifiedToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtFilterTest {
+    private static final String TOKEN = "header.payload.signature";
+    private static final String EMAIL = "test@gmail.com";
+    private static final UUID USER_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserDetailsCache userDetailsCache;
+    private TokenVersionCache tokenVersionCache;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsCache = new UserDetailsCache(new CustomUserServiceImpl(userRepository),
+                new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+        tokenVersionCache = new TokenVersionCache(userRepository, Duration.ofMinutes(1), 100);
+        when(jwtService.verifyToken(TOKEN)).thenReturn(new VerifiedToken(TokenStatus.VALID, EMAIL,
+                Instant.now().plusSeconds(300), 0, USER_ID, List.of("ROLE_USER", "ROLE_ADMIN")));
+        when(userRepository.findTokenVersionByEmail(EMAIL)).thenReturn(Optional.of(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private JwtFilter newFilter(boolean statelessPrincipal) {
+        return new JwtFilter(jwtService, userDetailsCache, tokenVersionCache, new SimpleMeterRegistry(),
+                ObservationRegistry.NOOP, statelessPrincipal);
+    }
+
+    private static MockHttpServletRequest bearer() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/email/" + EMAIL);
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN);
+        return request;
+    }
+
+    @Test
+    void doFilter_shouldBuildPrincipalFromClaimsWithoutUserLookup() throws Exception {
+        newFilter(true).doFilter(bearer(), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        JwtPrincipal principal = assertInstanceOf(JwtPrincipal.class, authentication.getPrincipal());
+        assertEquals(USER_ID, principal.userId());
+        assertEquals(EMAIL, authentication.getName());
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        // Только проверка версии токена, пользователь из базы не загружается
+        verify(userRepository).findTokenVersionByEmail(EMAIL);
+        verify(userRepository, never()).findByEmail(anyString());
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void doFilter_shouldLoadUserWhenStatelessPrincipalDisabled() throws Exception {
+        User user = new User();
+        user.setEmail(EMAIL);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+        newFilter(false).doFilter(bearer(), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertInstanceOf(CustomUserDetails.class, authentication.getPrincipal());
+        verify(userRepository).findByEmail(EMAIL);
+    }
+}
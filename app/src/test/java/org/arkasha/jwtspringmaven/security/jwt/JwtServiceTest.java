@@ -0,0 +1,182 @@
+package org.arkasha.jwtspringmaven.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.arkasha.jwtspringmaven.audit.AuditLog;
+import org.arkasha.jwtspringmaven.dto.JwtAuthenticationDto;
+import org.arkasha.jwtspringmaven.security.revocation.InMemoryRevocationStore;
+import org.arkasha.jwtspringmaven.security.signing.SigningKeyRing;
+import org.arkasha.tokenverifier.TokenDigest;
+import org.arkasha.tokenverifier.TokenStatus;
+import org.arkasha.tokenverifier.VerifiedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+    private static final String SECRET = "LUVgVZ3AmKy8ZNBcaQbIb/6uz82RRzBt9Vhb3Qqx6z+ZFJAEEeIPWUSwtc9joou1";
+    private static final TokenSubject SUBJECT = new TokenSubject(UUID.randomUUID(), "test@gmail.com", 0, List.of());
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = newJwtService("hmac");
+    }
+
+    private JwtService newJwtService(String signingMode) throws IOException {
+        SigningKeyRing signingKeyRing = new SigningKeyRing(signingMode, Duration.ofHours(24), Duration.ofMinutes(5), "");
+        ReflectionTestUtils.invokeMethod(signingKeyRing, "init");
+        JwtService service = new JwtService(new VerifiedTokenCache(true, 100), new InMemoryRevocationStore(1000, ""),
+                signingKeyRing, meterRegistry, ObservationRegistry.NOOP, AuditLog.NOOP);
+        ReflectionTestUtils.setField(service, "jwtSecret", SECRET);
+        service.init();
+        return service;
+    }
+
+    private static String header(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+    }
+
+    private long validations(String outcome) {
+        return meterRegistry.get("jwt.validation").tag("outcome", outcome).timer().count();
+    }
+
+    @Test
+    void generateAuthToken_shouldCountIssuedTokensByType() {
+        jwtService.generateAuthToken(SUBJECT);
+
+        assertEquals(1, meterRegistry.get("jwt.tokens.issued").tag("type", "access").counter().count());
+        assertEquals(1, meterRegistry.get("jwt.tokens.issued").tag("type", "refresh").counter().count());
+    }
+
+    @Test
+    void verifyToken_shouldRecordValidOutcome() {
+        String token = jwtService.generateJwtToken(SUBJECT);
+
+        assertTrue(jwtService.verifyToken(token).isValid());
+
+        assertEquals(1, validations("valid"));
+        assertEquals(0, validations("malformed"));
+    }
+
+    @Test
+    void verifyToken_shouldReturnBadSignature_whenSignatureIsTampered() {
+        String token = jwtService.generateJwtToken(SUBJECT);
+        int signature = token.lastIndexOf('.') + 1;
+        char first = token.charAt(signature);
+        String tampered = token.substring(0, signature) + (first == 'A' ? 'B' : 'A') + token.substring(signature + 1);
+
+        assertEquals(TokenStatus.BAD_SIGNATURE, jwtService.verifyToken(tampered).status());
+
+        assertEquals(1, validations("bad-signature"));
+    }
+
+    @Test
+    void verifyToken_shouldReturnMalformed_forGarbage() {
+        assertEquals(TokenStatus.MALFORMED, jwtService.verifyToken("not.a.jwt").status());
+        assertEquals(TokenStatus.MALFORMED, jwtService.verifyToken("no-dots").status());
+        assertEquals(TokenStatus.MALFORMED, jwtService.verifyToken("a.b.c.d").status());
+        assertEquals(TokenStatus.MALFORMED, jwtService.verifyToken("a+b.c/d.e").status());
+
+        assertEquals(4, validations("malformed"));
+    }
+
+    @Test
+    void verifyToken_shouldReturnMalformed_whenAlgorithmIsNone() {
+        String token = jwtService.generateJwtToken(SUBJECT);
+        String header = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8));
+        String unsigned = header + token.substring(token.indexOf('.'), token.lastIndexOf('.') + 1) + "x";
+
+        assertEquals(TokenStatus.MALFORMED, jwtService.verifyToken(unsigned).status());
+    }
+
+    @Test
+    void verifyToken_shouldReturnExpired_whenExpIsInThePast() {
+        String token = Jwts.builder()
+                .subject("test@gmail.com")
+                .expiration(Date.from(Instant.now().minusSeconds(60)))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        assertEquals(TokenStatus.EXPIRED, jwtService.verifyToken(token).status());
+
+        assertEquals(1, validations("expired"));
+    }
+
+    @Test
+    void verifyToken_shouldReadClaims() {
+        ReflectionTestUtils.setField(jwtService, "principalClaims", true);
+        VerifiedToken verifiedToken = jwtService.verifyToken(jwtService.generateJwtToken(
+                new TokenSubject(SUBJECT.userId(), "test@gmail.com", 3, List.of("ROLE_USER"))));
+
+        assertEquals("test@gmail.com", verifiedToken.subject());
+        assertEquals(SUBJECT.userId(), verifiedToken.userId());
+        assertEquals(3, verifiedToken.tokenVersion());
+        assertEquals(List.of("ROLE_USER"), verifiedToken.authorities());
+        assertTrue(verifiedToken.expiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void generateJwtToken_shouldOmitPrincipalClaims_whenStatelessPrincipalDisabled() {
+        VerifiedToken verifiedToken = jwtService.verifyToken(jwtService.generateJwtToken(
+                new TokenSubject(SUBJECT.userId(), "test@gmail.com", 3, List.of("ROLE_USER"))));
+
+        assertTrue(verifiedToken.isValid());
+        assertNull(verifiedToken.userId());
+        assertEquals(List.of(), verifiedToken.authorities());
+        assertEquals(3, verifiedToken.tokenVersion());
+    }
+
+    @Test
+    void verifyToken_shouldRecordRevokedOutcome_afterRefresh() {
+        JwtAuthenticationDto tokens = jwtService.generateAuthToken(SUBJECT);
+        jwtService.completeRefresh(SUBJECT, tokens.getRefreshToken(), TokenDigest.of(tokens.getToken()));
+
+        assertEquals(TokenStatus.REVOKED, jwtService.verifyToken(tokens.getToken()).status());
+
+        assertEquals(1, validations("revoked"));
+    }
+
+    @Test
+    void verifyToken_shouldAcceptEcTokenWithKeyId() throws IOException {
+        JwtService ecService = newJwtService("ec");
+        String token = ecService.generateJwtToken(SUBJECT);
+
+        assertTrue(header(token).contains("\"alg\":\"ES256\""));
+        assertTrue(header(token).contains("\"kid\""));
+        assertTrue(ecService.verifyToken(token).isValid());
+        assertEquals(SUBJECT.email(), ecService.getEmailFromToken(token));
+    }
+
+    @Test
+    void verifyToken_shouldRejectEcTokenSignedByUnknownKey() throws IOException {
+        String foreignToken = newJwtService("ec").generateJwtToken(SUBJECT);
+
+        assertEquals(TokenStatus.BAD_SIGNATURE, newJwtService("ec").verifyToken(foreignToken).status());
+    }
+
+    @Test
+    void verifyToken_shouldRejectHmacToken_inEcMode() throws IOException {
+        String hmacToken = jwtService.generateJwtToken(SUBJECT);
+
+        assertEquals(TokenStatus.MALFORMED, newJwtService("ec").verifyToken(hmacToken).status());
+    }
+}
@@ -0,0 +1,148 @@
+package org.arkasha.jwtspringmaven.security.jwt;
+
+import org.arkasha.tokenverifier.TokenDigest;
+import org.arkasha.tokenverifier.TokenStatus;
+import org.arkasha.tokenverifier.VerifiedToken;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private static VerifiedToken valid(Instant expiresAt) {
+        return new VerifiedToken(TokenStatus.VALID, "test@gmail.com", expiresAt, 0, null, List.of());
+    }
+
+    private static Function<String, VerifiedToken> counting(AtomicInteger calls, VerifiedToken result) {
+        return token -> {
+            calls.incrementAndGet();
+            return result;
+        };
+    }
+
+    @Test
+    void getOrVerify_shouldServeRepeatedTokenFromCache() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100);
+        AtomicInteger calls = new AtomicInteger();
+        VerifiedToken verified = valid(Instant.now().plusSeconds(300));
+
+        assertSame(verified, cache.getOrVerify(TokenDigest.of("a"), "a", counting(calls, verified)));
+        assertSame(verified, cache.getOrVerify(TokenDigest.of("a"), "a", counting(calls, verified)));
+
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void getOrVerify_shouldNotCacheRejectedToken() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100);
+        AtomicInteger calls = new AtomicInteger();
+        VerifiedToken rejected = VerifiedToken.rejected(TokenStatus.BAD_SIGNATURE);
+
+        cache.getOrVerify(TokenDigest.of("a"), "a", counting(calls, rejected));
+        cache.getOrVerify(TokenDigest.of("a"), "a", counting(calls, rejected));
+
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidate_shouldForceFullCheckAfterRevocation() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100);
+        AtomicInteger calls = new AtomicInteger();
+        VerifiedToken verified = valid(Instant.now().plusSeconds(300));
+        cache.getOrVerify(TokenDigest.of("a"), "a", counting(calls, verified));
+
+        // JwtService снимает отозванный токен с кэша
+        cache.invalidate(TokenDigest.of("a"));
+
+        assertEquals(0, cache.size());
+        cache.getOrVerify(TokenDigest.of("a"), "a", counting(calls, verified));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void getOrVerify_shouldEvictWhenFull() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 10);
+        VerifiedToken verified = valid(Instant.now().plusSeconds(300));
+
+        for (int i = 0; i < 25; i++) {
+            String token = "token-" + i;
+            cache.getOrVerify(TokenDigest.of(token), token, t -> verified);
+        }
+
+        assertTrue(cache.size() <= 10, "size " + cache.size());
+        assertTrue(cache.size() > 0);
+    }
+
+    @Test
+    void getOrVerify_shouldStayBoundedUnderConcurrentMisses() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100);
+        VerifiedToken verified = valid(Instant.now().plusSeconds(300));
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 2000; i++) {
+                        String token = "token-" + thread + "-" + i;
+                        cache.getOrVerify(TokenDigest.of(token), token, ignored -> verified);
+                        assertTrue(cache.size() <= 100, "size " + cache.size());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(cache.size() <= 100, "size " + cache.size());
+    }
+
+    @Test
+    void getOrVerify_shouldNotServeEntryPastTokenExpiry() throws InterruptedException {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100);
+        AtomicInteger calls = new AtomicInteger();
+        VerifiedToken shortLived = valid(Instant.now().plusMillis(50));
+        cache.getOrVerify(TokenDigest.of("a"), "a", counting(calls, shortLived));
+
+        Thread.sleep(100);
+        VerifiedToken expired = VerifiedToken.rejected(TokenStatus.EXPIRED);
+
+        assertSame(expired, cache.getOrVerify(TokenDigest.of("a"), "a", counting(calls, expired)));
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void getOrVerify_shouldBypassCacheWhenDisabled() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(false, 100);
+        AtomicInteger calls = new AtomicInteger();
+        VerifiedToken verified = valid(Instant.now().plusSeconds(300));
+
+        cache.getOrVerify(TokenDigest.of("a"), "a", counting(calls, verified));
+        cache.getOrVerify(TokenDigest.of("a"), "a", counting(calls, verified));
+
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.size());
+    }
+}
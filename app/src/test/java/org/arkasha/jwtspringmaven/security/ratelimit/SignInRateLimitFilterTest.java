@@ -0,0 +1,110 @@
+package org.arkasha.jwtspringmaven.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignInRateLimitFilterTest {
+    private SimpleMeterRegistry meterRegistry;
+    private SignInRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new SignInRateLimitFilter(new ObjectMapper(), meterRegistry, true, 1024,
+                100, Duration.ofMinutes(1), 2, Duration.ofMinutes(1));
+    }
+
+    private MockHttpServletRequest signIn(String email, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/sign-in");
+        request.setServletPath("/auth/sign-in");
+        request.setRemoteAddr(remoteAddr);
+        request.setContent(("{\"email\":\"" + email + "\",\"password\":\"secret\"}").getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    @Test
+    void doFilter_shouldPassBodyDownstream() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(signIn("test@gmail.com", "10.0.0.1"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        String body = new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("test@gmail.com"));
+    }
+
+    @Test
+    void doFilter_shouldServeBodyToNonBlockingReader() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(signIn("test@gmail.com", "10.0.0.1"), new MockHttpServletResponse(), chain);
+
+        ServletInputStream input = chain.getRequest().getInputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        boolean[] allDataRead = {false};
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[16];
+                while (input.isReady() && !input.isFinished()) {
+                    int read = input.read(buffer);
+                    body.write(buffer, 0, read);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allDataRead[0] = true;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t);
+            }
+        });
+
+        assertTrue(allDataRead[0]);
+        assertTrue(body.toString(StandardCharsets.UTF_8).contains("test@gmail.com"));
+    }
+
+    @Test
+    void doFilter_shouldRejectEmailOverLimitFromAnyAddress() throws Exception {
+        filter.doFilter(signIn("test@gmail.com", "10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(signIn("TEST@gmail.com", "10.0.0.2"), new MockHttpServletResponse(), new MockFilterChain());
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(signIn("test@gmail.com", "10.0.0.3"), response, chain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("60", response.getHeader("Retry-After"));
+        assertNull(chain.getRequest());
+        assertEquals(1.0, meterRegistry.get("security.sign-in.rejected").tag("limit", "email").functionCounter().count());
+    }
+
+    @Test
+    void doFilter_shouldIgnoreOtherEndpoints() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = signIn("test@gmail.com", "10.0.0.1");
+            request.setServletPath("/auth/refresh");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            filter.doFilter(request, response, new MockFilterChain());
+
+            assertEquals(200, response.getStatus());
+        }
+    }
+}
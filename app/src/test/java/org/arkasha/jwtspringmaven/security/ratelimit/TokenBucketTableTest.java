@@ -0,0 +1,97 @@
+package org.arkasha.jwtspringmaven.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTableTest {
+    private static final long NOW = 1_700_000_000_000L;
+
+    private TokenBucketTable newTable(int capacity) {
+        return new TokenBucketTable(1024, capacity, Duration.ofSeconds(1), NOW);
+    }
+
+    @Test
+    void tryAcquire_shouldAllowBurstUpToCapacity() {
+        TokenBucketTable table = newTable(3);
+
+        assertEquals(0, table.tryAcquire("key", NOW));
+        assertEquals(0, table.tryAcquire("key", NOW));
+        assertEquals(0, table.tryAcquire("key", NOW));
+        assertEquals(1000, table.tryAcquire("key", NOW));
+    }
+
+    @Test
+    void tryAcquire_shouldRefillOneTokenPerInterval() {
+        TokenBucketTable table = newTable(1);
+
+        assertEquals(0, table.tryAcquire("key", NOW));
+        assertEquals(400, table.tryAcquire("key", NOW + 600));
+        assertEquals(0, table.tryAcquire("key", NOW + 1000));
+    }
+
+    @Test
+    void tryAcquire_shouldKeepKeysIndependent() {
+        TokenBucketTable table = newTable(1);
+
+        assertEquals(0, table.tryAcquire("first", NOW));
+        assertTrue(table.tryAcquire("first", NOW) > 0);
+        assertEquals(0, table.tryAcquire("second", NOW));
+    }
+
+    @Test
+    void constructor_shouldRoundSlotsToPowerOfTwo() {
+        assertEquals(1024, new TokenBucketTable(1000, 1, Duration.ofSeconds(1), NOW).getSlots());
+    }
+
+    @Test
+    void tryAcquire_shouldGiveCollidingKeysOwnBuckets() {
+        // Четыре слота: все ключи попадают в одну окрестность
+        TokenBucketTable table = new TokenBucketTable(4, 1, Duration.ofSeconds(1), NOW);
+
+        for (String key : new String[]{"a", "b", "c", "d"}) {
+            assertEquals(0, table.tryAcquire(key, NOW));
+        }
+        for (String key : new String[]{"a", "b", "c", "d"}) {
+            assertTrue(table.tryAcquire(key, NOW) > 0);
+        }
+        assertEquals(0, table.getEvictions());
+    }
+
+    @Test
+    void tryAcquire_shouldNotLockOutKeyWhenOtherKeysAreSprayed() {
+        TokenBucketTable table = newTable(1);
+        assertEquals(0, table.tryAcquire("victim@gmail.com", NOW));
+
+        for (int i = 0; i < 100_000; i++) {
+            table.tryAcquire("random-" + i + "@gmail.com", NOW + 1000);
+        }
+
+        assertEquals(0, table.tryAcquire("victim@gmail.com", NOW + 1000));
+    }
+
+    @Test
+    void tryAcquire_shouldReplaceRefilledBucketWithoutEviction() {
+        TokenBucketTable table = new TokenBucketTable(1, 2, Duration.ofSeconds(1), NOW);
+        assertEquals(0, table.tryAcquire("first", NOW));
+        assertEquals(0, table.tryAcquire("first", NOW));
+
+        assertEquals(0, table.tryAcquire("second", NOW + 2000));
+        assertEquals(0, table.getEvictions());
+    }
+
+    @Test
+    void tryAcquire_shouldEvictMostRefilledBucketWhenNeighbourhoodIsFull() {
+        TokenBucketTable table = new TokenBucketTable(2, 2, Duration.ofSeconds(1), NOW);
+        assertEquals(0, table.tryAcquire("drained", NOW));
+        assertEquals(0, table.tryAcquire("drained", NOW));
+        assertEquals(0, table.tryAcquire("half", NOW));
+
+        assertEquals(0, table.tryAcquire("new", NOW));
+
+        assertEquals(1, table.getEvictions());
+        assertTrue(table.tryAcquire("drained", NOW) > 0);
+    }
+}
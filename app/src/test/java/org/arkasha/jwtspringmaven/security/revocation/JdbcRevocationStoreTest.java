@@ -0,0 +1,102 @@
+package org.arkasha.jwtspringmaven.security.revocation;
+
+import org.arkasha.tokenverifier.TokenDigest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcRevocationStoreTest {
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("db/migration/V3__create_revoked_tokens.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    private JdbcRevocationStore newStore() {
+        JdbcRevocationStore store = new JdbcRevocationStore(jdbcTemplate, 1000, 2, 100, Duration.ofMinutes(1));
+        store.init();
+        return store;
+    }
+
+    @Test
+    void revoke_shouldBeVisibleOnOtherInstanceAfterPoll() {
+        JdbcRevocationStore first = newStore();
+        JdbcRevocationStore second = newStore();
+        TokenDigest digest = TokenDigest.of("token");
+
+        first.revoke(digest, Instant.now().plusSeconds(300));
+
+        assertTrue(first.isRevoked(digest));
+        assertFalse(second.isRevoked(digest));
+        second.poll();
+        assertTrue(second.isRevoked(digest));
+    }
+
+    @Test
+    void init_shouldLoadExistingRevocationsInBatches() {
+        JdbcRevocationStore first = newStore();
+        for (int i = 0; i < 5; i++) {
+            first.revoke(TokenDigest.of("token-" + i), Instant.now().plusSeconds(300));
+        }
+
+        JdbcRevocationStore restarted = newStore();
+
+        assertEquals(5, restarted.size());
+        assertTrue(restarted.isRevoked(TokenDigest.of("token-4")));
+    }
+
+    @Test
+    void revoke_shouldIgnoreDuplicates() {
+        JdbcRevocationStore store = newStore();
+        TokenDigest digest = TokenDigest.of("token");
+
+        assertTrue(store.revoke(digest, Instant.now().plusSeconds(300)));
+        assertTrue(store.revoke(digest, Instant.now().plusSeconds(300)));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM revoked_tokens", Integer.class));
+    }
+
+    @Test
+    void poll_shouldPickUpRowCommittedAfterHigherId() {
+        JdbcRevocationStore store = newStore();
+        long expiresAt = Instant.now().plusSeconds(300).getEpochSecond();
+        TokenDigest early = TokenDigest.of("early-id");
+        TokenDigest late = TokenDigest.of("late-id");
+
+        // Реплика B получила id 10 и закоммитила раньше, чем реплика A со своим id 5
+        insertRow(10, late, expiresAt);
+        store.poll();
+        insertRow(5, early, expiresAt);
+        store.poll();
+
+        assertTrue(store.isRevoked(late));
+        assertTrue(store.isRevoked(early));
+        assertEquals(2, store.size());
+    }
+
+    private void insertRow(long id, TokenDigest digest, long expiresAt) {
+        jdbcTemplate.update("INSERT INTO revoked_tokens (id, digest_high, digest_low, expires_at) VALUES (?, ?, ?, ?)",
+                id, digest.high(), digest.low(), expiresAt);
+    }
+}
@@ -0,0 +1,59 @@
+package org.arkasha.jwtspringmaven.security.revocation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationPollCursorTest {
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void start_shouldNotRereadContiguousIds() {
+        RevocationPollCursor cursor = new RevocationPollCursor(100, Duration.ofSeconds(10));
+        for (long id = 1; id <= 5; id++) {
+            assertTrue(cursor.accept(id, NOW));
+        }
+
+        assertEquals(5, cursor.start(NOW + 1000));
+        assertEquals(0, cursor.getGaps());
+    }
+
+    @Test
+    void accept_shouldReportLateRowOnceAndMoveStartPastIt() {
+        RevocationPollCursor cursor = new RevocationPollCursor(100, Duration.ofSeconds(10));
+        cursor.accept(1, NOW);
+        cursor.accept(4, NOW);
+
+        assertEquals(1, cursor.start(NOW));
+        assertFalse(cursor.accept(4, NOW));
+        assertTrue(cursor.accept(3, NOW));
+        assertFalse(cursor.accept(3, NOW));
+        assertEquals(1, cursor.start(NOW));
+        assertTrue(cursor.accept(2, NOW));
+
+        assertEquals(4, cursor.start(NOW));
+    }
+
+    @Test
+    void start_shouldForgetGapAfterTimeout() {
+        RevocationPollCursor cursor = new RevocationPollCursor(100, Duration.ofSeconds(10));
+        cursor.accept(1, NOW);
+        cursor.accept(3, NOW);
+
+        assertEquals(1, cursor.start(NOW + 9_999));
+        assertEquals(3, cursor.start(NOW + 10_000));
+        assertEquals(0, cursor.getGaps());
+    }
+
+    @Test
+    void accept_shouldTrackAtMostMaxGaps() {
+        RevocationPollCursor cursor = new RevocationPollCursor(10, Duration.ofSeconds(10));
+        cursor.accept(1, NOW);
+        cursor.accept(1_000, NOW);
+
+        assertEquals(10, cursor.getGaps());
+        assertEquals(989, cursor.start(NOW));
+    }
+}
@@ -0,0 +1,107 @@
+package org.arkasha.jwtspringmaven.security.revocation;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.LongBuffer;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationSetTest {
+    private static final long NOW = 1_700_000_000L;
+
+    private RevocationSet newSet(int maxEntries) {
+        return new RevocationSet(maxEntries, Duration.ofMinutes(1), Duration.ofDays(1), NOW);
+    }
+
+    @Test
+    void add_shouldMakeDigestRevoked() {
+        RevocationSet set = newSet(100);
+
+        assertTrue(set.add(1L, 2L, NOW + 300, NOW));
+
+        assertTrue(set.contains(1L, 2L));
+        assertFalse(set.contains(2L, 1L));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void add_shouldIgnoreAlreadyExpiredToken() {
+        RevocationSet set = newSet(100);
+
+        assertTrue(set.add(1L, 2L, NOW - 1, NOW));
+
+        assertFalse(set.contains(1L, 2L));
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    void expire_shouldRemoveEntriesOnlyAfterTheirExpiry() {
+        RevocationSet set = newSet(100);
+        set.add(1L, 1L, NOW + 300, NOW);
+        set.add(2L, 2L, NOW + 3600, NOW);
+
+        assertEquals(0, set.expire(NOW + 120));
+        assertEquals(1, set.expire(NOW + 400));
+
+        assertFalse(set.contains(1L, 1L));
+        assertTrue(set.contains(2L, 2L));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void expire_shouldKeepEntriesBeyondTheHorizon() {
+        RevocationSet set = newSet(100);
+        long farFuture = NOW + Duration.ofDays(3).toSeconds();
+        set.add(1L, 1L, farFuture, NOW);
+
+        set.expire(NOW + Duration.ofDays(2).toSeconds());
+
+        assertTrue(set.contains(1L, 1L));
+        set.expire(farFuture + 60);
+        assertFalse(set.contains(1L, 1L));
+    }
+
+    @Test
+    void addAll_shouldInsertLiveTriplesAndSkipExpired() {
+        RevocationSet set = newSet(100);
+        LongBuffer records = LongBuffer.wrap(new long[]{
+                1L, 1L, NOW + 300,
+                2L, 2L, NOW - 1,
+                3L, 3L, NOW + 300});
+
+        assertEquals(3, set.addAll(records, NOW));
+
+        assertTrue(set.contains(1L, 1L));
+        assertFalse(set.contains(2L, 2L));
+        assertTrue(set.contains(3L, 3L));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void add_shouldRejectAndCountOverflow_whenFull() {
+        RevocationSet set = newSet(2);
+        set.add(1L, 1L, NOW + 300, NOW);
+        set.add(2L, 2L, NOW + 300, NOW);
+
+        assertFalse(set.add(3L, 3L, NOW + 300, NOW));
+
+        assertFalse(set.contains(3L, 3L));
+        assertEquals(1, set.getOverflows());
+    }
+
+    @Test
+    void removal_shouldKeepCollidingEntriesReachable() {
+        RevocationSet set = newSet(10_000);
+        for (long i = 1; i <= 5_000; i++) {
+            set.add(i, i * 31, NOW + (i % 2 == 0 ? 100 : 10_000), NOW);
+        }
+
+        set.expire(NOW + 200);
+
+        assertEquals(2_500, set.size());
+        for (long i = 1; i <= 5_000; i++) {
+            assertEquals(i % 2 != 0, set.contains(i, i * 31), "digest " + i);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.arkasha.jwtspringmaven.security.revocation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationSnapshotTest {
+    private static final long NOW = 1_700_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private RevocationSet newSet() {
+        return new RevocationSet(1000, Duration.ofMinutes(1), Duration.ofDays(1), NOW);
+    }
+
+    @Test
+    void load_shouldRestoreSnapshotAndJournal() throws Exception {
+        RevocationSet original = newSet();
+        RevocationSnapshot snapshot = new RevocationSnapshot(directory);
+        snapshot.load(original, NOW);
+        original.add(1L, 1L, NOW + 300, NOW);
+        original.add(2L, 2L, NOW + 300, NOW);
+        snapshot.write(original);
+        original.add(3L, 3L, NOW + 300, NOW);
+        snapshot.append(3L, 3L, NOW + 300);
+        snapshot.close();
+
+        RevocationSet restored = newSet();
+        int loaded = new RevocationSnapshot(directory).load(restored, NOW);
+
+        assertEquals(3, loaded);
+        assertTrue(restored.contains(1L, 1L));
+        assertTrue(restored.contains(2L, 2L));
+        assertTrue(restored.contains(3L, 3L));
+    }
+
+    @Test
+    void load_shouldSkipExpiredEntriesAndTornJournalTail() throws Exception {
+        RevocationSnapshot snapshot = new RevocationSnapshot(directory);
+        snapshot.load(newSet(), NOW);
+        snapshot.append(1L, 1L, NOW + 100);
+        snapshot.append(2L, 2L, NOW + 10_000);
+        snapshot.close();
+        Path journal = directory.resolve("revocations.journal");
+        Files.write(journal, new byte[]{1, 2, 3}, java.nio.file.StandardOpenOption.APPEND);
+
+        RevocationSet restored = newSet();
+        new RevocationSnapshot(directory).load(restored, NOW + 200);
+
+        assertFalse(restored.contains(1L, 1L));
+        assertTrue(restored.contains(2L, 2L));
+        assertEquals(1, restored.size());
+    }
+
+    @Test
+    void write_shouldTruncateJournal() throws Exception {
+        RevocationSet set = newSet();
+        RevocationSnapshot snapshot = new RevocationSnapshot(directory);
+        snapshot.load(set, NOW);
+        set.add(1L, 1L, NOW + 300, NOW);
+        snapshot.append(1L, 1L, NOW + 300);
+
+        snapshot.write(set);
+        snapshot.close();
+
+        assertEquals(0, Files.size(directory.resolve("revocations.journal")));
+    }
+}
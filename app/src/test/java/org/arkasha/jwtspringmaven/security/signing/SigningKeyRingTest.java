@@ -0,0 +1,78 @@
+package org.arkasha.jwtspringmaven.security.signing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SigningKeyRingTest {
+    private static final Duration ROTATION = Duration.ofHours(12);
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    @TempDir
+    Path keyDir;
+
+    private static SigningKeyRing newRing(String keyDir) throws IOException {
+        return new SigningKeyRing(SigningKeyRing.MODE_EC, ROTATION, Duration.ofMinutes(5), keyDir);
+    }
+
+    @Test
+    void rotate_shouldPublishNextKeyBeforeSigningWithIt() throws IOException {
+        SigningKeyRing ring = newRing("");
+        ring.rotate(START);
+        SigningKey first = ring.current();
+
+        assertEquals(2, ring.publicKeys().size());
+        String nextKeyId = ring.publicKeys().keySet().stream()
+                .filter(keyId -> !keyId.equals(first.keyId()))
+                .findFirst()
+                .orElseThrow();
+
+        ring.rotate(START.plus(ROTATION));
+
+        assertEquals(nextKeyId, ring.current().keyId());
+        assertTrue(ring.publicKeys().containsKey(first.keyId()));
+        assertTrue(ring.jwks().contains(first.keyId()));
+    }
+
+    @Test
+    void rotate_shouldDropKeysAfterLastTokenExpires() throws IOException {
+        SigningKeyRing ring = newRing("");
+        ring.rotate(START);
+        String firstKeyId = ring.current().keyId();
+
+        // Обновление живет сутки: ключ интервала нужен еще три интервала по 12 часов
+        ring.rotate(START.plus(ROTATION.multipliedBy(3)));
+        assertTrue(ring.publicKeys().containsKey(firstKeyId));
+
+        ring.rotate(START.plus(ROTATION.multipliedBy(4)));
+        assertFalse(ring.publicKeys().containsKey(firstKeyId));
+    }
+
+    @Test
+    void rotate_shouldShareKeysThroughKeyDir() throws IOException {
+        SigningKeyRing first = newRing(keyDir.toString());
+        SigningKeyRing second = newRing(keyDir.toString());
+
+        first.rotate(START);
+        second.rotate(START);
+
+        assertEquals(first.current().keyId(), second.current().keyId());
+        assertEquals(first.publicKeys().keySet(), second.publicKeys().keySet());
+        try (var files = Files.list(keyDir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    void constructor_shouldRejectJwksMaxAgeLongerThanRotation() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SigningKeyRing(SigningKeyRing.MODE_EC, ROTATION, ROTATION, ""));
+    }
+}
@@ -0,0 +1,348 @@
+package org.arkasha.jwtspringmaven.service;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.arkasha.jwtspringmaven.audit.AuditEventType;
+import org.arkasha.jwtspringmaven.audit.AuditLog;
+import org.arkasha.jwtspringmaven.dto.JwtAuthenticationDto;
+import org.arkasha.jwtspringmaven.dto.RefreshTokenDto;
+import org.arkasha.jwtspringmaven.dto.UserCredentialsDto;
+import org.arkasha.jwtspringmaven.dto.UserDto;
+import org.arkasha.jwtspringmaven.entity.JwtAuthentication;
+import org.arkasha.jwtspringmaven.entity.User;
+import org.arkasha.jwtspringmaven.mapper.UserMapper;
+import org.arkasha.jwtspringmaven.repository.JwtAuthenticationRepository;
+import org.arkasha.jwtspringmaven.repository.UserRepository;
+import org.arkasha.jwtspringmaven.security.PasswordHashingExecutor;
+import org.arkasha.jwtspringmaven.security.TokenVersionCache;
+import org.arkasha.jwtspringmaven.security.UserDetailsCache;
+import org.arkasha.jwtspringmaven.security.jwt.JwtService;
+import org.arkasha.jwtspringmaven.security.jwt.TokenSubject;
+import org.arkasha.jwtspringmaven.service.impl.UserServiceImpl;
+import org.arkasha.tokenverifier.TokenDigest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.crossstore.ChangeSetPersister;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserServiceImplTest {
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JwtAuthenticationRepository jwtAuthenticationRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private TokenVersionCache tokenVersionCache;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Mock
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Spy
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+    @Mock
+    private AuditLog auditLog;
+
+    @InjectMocks
+    private UserServiceImpl userService;
+
+    private void runHashingInline() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(passwordHashingExecutor).execute(any(Runnable.class));
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(applicationTaskExecutor).execute(any(Runnable.class));
+    }
+
+    @Test
+    void signIn_shouldReturnJwtToken_whenCredentialsAreValid() throws Exception {
+        UserCredentialsDto credentials = new UserCredentialsDto("test@example.com", "password");
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setPassword("encodedPassword");
+
+        JwtAuthenticationDto jwt = new JwtAuthenticationDto("access", "refresh");
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password", "encodedPassword")).thenReturn(true);
+        when(jwtService.generateAuthToken(new TokenSubject(null, "test@example.com", 0, List.of()))).thenReturn(jwt);
+        runHashingInline();
+
+        JwtAuthenticationDto result = userService.signIn(credentials).join().orElseThrow();
+
+        assertEquals("access", result.getToken());
+        assertEquals("refresh", result.getRefreshToken());
+        verify(jwtAuthenticationRepository).save(argThat(session ->
+                session.getRefreshTokenHash().equals(TokenDigest.of("refresh").toHex())));
+        verify(userRepository, never()).save(any(User.class));
+        // Сессия пишется не в пуле хэширования
+        verify(passwordHashingExecutor).execute(any(Runnable.class));
+        verify(applicationTaskExecutor).execute(any(Runnable.class));
+    }
+
+    @Test
+    void signIn_shouldReturnEmpty_whenPasswordIsInvalid() {
+        UserCredentialsDto credentials = new UserCredentialsDto("test@example.com", "wrongPassword");
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setPassword("encodedPassword");
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("wrongPassword", "encodedPassword")).thenReturn(false);
+        runHashingInline();
+
+        assertTrue(userService.signIn(credentials).join().isEmpty());
+        verify(jwtService, never()).generateAuthToken(any());
+        verify(auditLog).record(argThat(event ->
+                event.type() == AuditEventType.SIGN_IN && !event.success()));
+    }
+
+    @Test
+    void signIn_shouldRejectImmediately_whenHashingQueueIsFull() {
+        UserCredentialsDto credentials = new UserCredentialsDto("test@example.com", "password");
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setPassword("encodedPassword");
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        doThrow(new RejectedExecutionException()).when(passwordHashingExecutor).execute(any(Runnable.class));
+
+        assertThrows(RejectedExecutionException.class, () -> {
+            userService.signIn(credentials);
+        });
+        verify(passwordEncoder, never()).matches(any(), any());
+    }
+
+    @Test
+    void signIn_shouldReturnEmpty_whenUserNotFound() {
+        UserCredentialsDto credentials = new UserCredentialsDto("nonexistent@example.com", "password");
+
+        when(userRepository.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+
+        assertTrue(userService.signIn(credentials).join().isEmpty());
+        verify(passwordEncoder, never()).matches(any(), any());
+    }
+
+    @Test
+    void refreshToken_shouldReturnNewToken_whenRefreshTokenIsValid() {
+        String refreshToken = "validToken";
+        String refreshTokenHash = TokenDigest.of(refreshToken).toHex();
+        RefreshTokenDto dto = new RefreshTokenDto(refreshToken);
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        user.setEmail("test@example.com");
+        JwtAuthentication session = new JwtAuthentication();
+        session.setId(UUID.randomUUID());
+        session.setUserId(user.getUserId());
+        session.setTokenHash(TokenDigest.of("oldToken").toHex());
+        session.setRefreshTokenHash(refreshTokenHash);
+        session.setExpiresAt(Instant.now().plusSeconds(60));
+
+        JwtAuthenticationDto jwt = new JwtAuthenticationDto("newAccess", "newRefresh");
+
+        when(jwtAuthenticationRepository.findByRefreshTokenHash(refreshTokenHash)).thenReturn(Optional.of(session));
+        when(userRepository.findByUserId(user.getUserId())).thenReturn(Optional.of(user));
+        TokenSubject subject = new TokenSubject(user.getUserId(), "test@example.com", 0, List.of());
+        when(jwtService.signRefreshedToken(subject)).thenReturn(jwt);
+        when(jwtAuthenticationRepository.rotateTokens(eq(session.getId()), eq(refreshTokenHash),
+                eq(TokenDigest.of("newAccess").toHex()), any(), eq(TokenDigest.of("newRefresh").toHex()), any(), any()))
+                .thenReturn(1);
+
+        JwtAuthenticationDto result = userService.refreshToken(dto).orElseThrow();
+
+        assertEquals("newAccess", result.getToken());
+        assertEquals("newRefresh", result.getRefreshToken());
+        verify(jwtService).completeRefresh(subject, refreshToken, TokenDigest.of("oldToken"));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void refreshToken_shouldNotRevokeOrAudit_whenConcurrentRefreshWon() {
+        String refreshToken = "validToken";
+        String refreshTokenHash = TokenDigest.of(refreshToken).toHex();
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        user.setEmail("test@example.com");
+        JwtAuthentication session = new JwtAuthentication();
+        session.setId(UUID.randomUUID());
+        session.setUserId(user.getUserId());
+        session.setTokenHash(TokenDigest.of("oldToken").toHex());
+        session.setRefreshTokenHash(refreshTokenHash);
+        session.setExpiresAt(Instant.now().plusSeconds(60));
+
+        when(jwtAuthenticationRepository.findByRefreshTokenHash(refreshTokenHash)).thenReturn(Optional.of(session));
+        when(userRepository.findByUserId(user.getUserId())).thenReturn(Optional.of(user));
+        when(jwtService.signRefreshedToken(any())).thenReturn(new JwtAuthenticationDto("newAccess", "newRefresh"));
+        when(jwtAuthenticationRepository.rotateTokens(any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
+
+        assertTrue(userService.refreshToken(new RefreshTokenDto(refreshToken)).isEmpty());
+        verify(jwtService, never()).completeRefresh(any(), any(), any());
+        verify(auditLog, never()).record(any());
+    }
+
+    @Test
+    void refreshToken_shouldReturnEmpty_whenRefreshTokenNotFound() {
+        RefreshTokenDto dto = new RefreshTokenDto("invalidToken");
+
+        when(jwtAuthenticationRepository.findByRefreshTokenHash(TokenDigest.of("invalidToken").toHex()))
+                .thenReturn(Optional.empty());
+
+        assertTrue(userService.refreshToken(dto).isEmpty());
+        verify(jwtService, never()).signRefreshedToken(any());
+    }
+
+    @Test
+    void getUserByEmail_shouldReturnUserDto_whenUserExistsAndTokenIsValid() throws Exception {
+        String email = "test@example.com";
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        user.setEmail(email);
+
+        UserDto userDto = new UserDto();
+        userDto.setEmail(email);
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(jwtAuthenticationRepository.existsByUserIdAndTokenExpiresAtAfter(eq(user.getUserId()), any()))
+                .thenReturn(true);
+        when(userMapper.toDto(user)).thenReturn(userDto);
+
+        UserDto result = userService.getUserByEmail(email);
+
+        assertEquals(email, result.getEmail());
+    }
+
+    @Test
+    void getUserByEmail_shouldThrowException_whenUserNotFound() {
+        String email = "nonexistent@example.com";
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+
+        assertThrows(Exception.class, () -> {
+            userService.getUserByEmail(email);
+        });
+    }
+
+    @Test
+    void getUserByEmail_shouldThrowException_whenTokenIsInvalid() throws Exception {
+        String email = "test@example.com";
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        user.setEmail(email);
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(jwtAuthenticationRepository.existsByUserIdAndTokenExpiresAtAfter(eq(user.getUserId()), any()))
+                .thenReturn(false);
+
+        assertThrows(Exception.class, () -> {
+            userService.getUserByEmail(email);
+        });
+    }
+
+    @Test
+    void getUserById_shouldReturnUserDto_whenUserExists() throws Exception {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setUserId(userId);
+        user.setEmail("test@example.com");
+
+        UserDto userDto = new UserDto();
+        userDto.setEmail("test@example.com");
+
+        when(userRepository.findByUserId(userId)).thenReturn(Optional.of(user));
+        when(userMapper.toDto(user)).thenReturn(userDto);
+
+        UserDto result = userService.getUserById(userId.toString());
+
+        assertEquals("test@example.com", result.getEmail());
+    }
+
+    @Test
+    void getUserById_shouldThrowNotFoundException_whenUserDoesNotExist() {
+        UUID userId = UUID.randomUUID();
+
+        when(userRepository.findByUserId(userId)).thenReturn(Optional.empty());
+
+        assertThrows(ChangeSetPersister.NotFoundException.class, () -> {
+            userService.getUserById(userId.toString());
+        });
+    }
+
+    @Test
+    void addUser_shouldReturnSuccessMessage() {
+        UserDto userDto = new UserDto();
+        userDto.setEmail("new@example.com");
+        userDto.setPassword("plainPassword");
+
+        User user = new User();
+        user.setEmail("new@example.com");
+        user.setPassword("plainPassword");
+
+        User userWithEncodedPassword = new User();
+        userWithEncodedPassword.setEmail("new@example.com");
+        userWithEncodedPassword.setPassword("encodedPassword");
+
+        when(userMapper.toEntity(userDto)).thenReturn(user);
+        when(passwordEncoder.encode("plainPassword")).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenReturn(userWithEncodedPassword);
+        runHashingInline();
+
+        String result = userService.addUser(userDto).join();
+
+        assertTrue(result.startsWith("User added: "));
+        // assertTrue(result.startsWith("User created: "));
+        verify(userRepository).save(any(User.class));
+        verify(passwordEncoder).encode("plainPassword");
+    }
+
+    @Test
+    void revokeAllSessions_shouldBumpTokenVersionAndEvictCache() {
+        String email = "test@example.com";
+
+        userService.revokeAllSessions(email);
+
+        verify(userRepository).incrementTokenVersion(email);
+        verify(jwtAuthenticationRepository).deleteByUserEmail(email);
+        verify(tokenVersionCache).evict(email);
+    }
+}
\ No newline at end of file
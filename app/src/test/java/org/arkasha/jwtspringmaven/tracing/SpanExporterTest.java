@@ -0,0 +1,65 @@
+package org.arkasha.jwtspringmaven.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpanExporterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    private static TraceContext context(boolean sampled) {
+        return TraceContext.newBuilder().traceId(1L).spanId(2L).sampled(sampled).build();
+    }
+
+    private static MutableSpan span() {
+        MutableSpan span = new MutableSpan();
+        span.traceId("0000000000000001");
+        span.id("0000000000000002");
+        span.name("refresh.session-lookup");
+        span.startTimestamp(1_000_000L);
+        span.finishTimestamp(1_000_250L);
+        span.tag("phase", "refresh.session-lookup");
+        return span;
+    }
+
+    @Test
+    void end_shouldAppendSampledSpanAsJsonLine() throws Exception {
+        Path file = directory.resolve("spans.jsonl");
+        SpanExporter exporter = new SpanExporter(objectMapper, "file", file.toString());
+
+        exporter.end(context(true), span(), SpanHandler.Cause.FINISHED);
+        exporter.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size());
+        JsonNode json = objectMapper.readTree(lines.get(0));
+        assertEquals("0000000000000001", json.get("traceId").asText());
+        assertEquals("refresh.session-lookup", json.get("name").asText());
+        assertEquals(250, json.get("duration").asLong());
+        assertEquals("refresh.session-lookup", json.get("tags").get("phase").asText());
+    }
+
+    @Test
+    void end_shouldSkipUnsampledSpan() throws Exception {
+        Path file = directory.resolve("spans.jsonl");
+        SpanExporter exporter = new SpanExporter(objectMapper, "file", file.toString());
+
+        exporter.end(context(false), span(), SpanHandler.Cause.FINISHED);
+        exporter.close();
+
+        assertEquals(0, Files.size(file));
+    }
+}
@@ -0,0 +1,2 @@
+DELETE FROM "jwt-authentication";
+DELETE FROM users;
\ No newline at end of file
@@ -0,0 +1,42 @@
+package org.arkasha.jwtspringmaven.mapper;
+
+import org.arkasha.jwtspringmaven.dto.UserDto;
+import org.arkasha.jwtspringmaven.entity.User;
+import org.arkasha.jwtspringmaven.mapper.impl.UserMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+    private final UserMapper userMapper = new UserMapperImpl();
+    private User user;
+    private UserDto userDto;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setUserId(UUID.randomUUID());
+        user.setFirstName("Artem");
+        user.setLastName("Test");
+        user.setEmail("test@gmail.com");
+        user.setPassword("$2a$10$2C2PGQ44v9dQ3i29EHbcoeJnkKkG8x8pdyyUoxqOpCWZwM0Hf1r52");
+        userDto = userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public UserDto toDto() {
+        return userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return userMapper.toEntity(userDto);
+    }
+}
@@ -0,0 +1,48 @@
+package org.arkasha.jwtspringmaven.security.jwt;
+
+import org.arkasha.tokenverifier.TokenDigest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор заголовка Authorization в {@link JwtFilter} и отпечаток токена, которые выполняются на каждом запросе
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+    private MockHttpServletRequest bearerRequest;
+    private MockHttpServletRequest anonymousRequest;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        token = JwtServiceBenchmark.newJwtService(false, "hmac")
+                .generateAuthToken(new TokenSubject(null, "test@gmail.com", 0, List.of()))
+                .getToken();
+        bearerRequest = new MockHttpServletRequest("GET", "/user/email/test@gmail.com");
+        bearerRequest.addHeader("Authorization", "Bearer " + token);
+        anonymousRequest = new MockHttpServletRequest("GET", "/user/email/test@gmail.com");
+    }
+
+    @Benchmark
+    public String getTokenFromRequest() {
+        return JwtFilter.getTokenFromRequest(bearerRequest);
+    }
+
+    @Benchmark
+    public String getTokenFromRequestWithoutHeader() {
+        return JwtFilter.getTokenFromRequest(anonymousRequest);
+    }
+
+    @Benchmark
+    public TokenDigest tokenDigest() {
+        return TokenDigest.of(token);
+    }
+}
@@ -0,0 +1,80 @@
+package org.arkasha.jwtspringmaven.security.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.arkasha.jwtspringmaven.audit.AuditLog;
+import org.arkasha.jwtspringmaven.dto.JwtAuthenticationDto;
+import org.arkasha.jwtspringmaven.security.revocation.InMemoryRevocationStore;
+import org.arkasha.jwtspringmaven.security.signing.SigningKeyRing;
+import org.arkasha.tokenverifier.VerifiedToken;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка токенов. {@code verifiedCache=false} - полная проверка подписи на каждый вызов,
+ * {@code true} - повторная проверка того же токена из {@link VerifiedTokenCache}.
+ * {@code signingMode} - HMAC общим секретом или ES256 ({@link SigningKeyRing}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+    static final String SECRET = "LUVgVZ3AmKy8ZNBcaQbIb/6uz82RRzBt9Vhb3Qqx6z+ZFJAEEeIPWUSwtc9joou1";
+
+    @Param({"false", "true"})
+    public boolean verifiedCache;
+
+    @Param({"hmac", "ec"})
+    public String signingMode;
+
+    private JwtService jwtService;
+    private TokenSubject subject;
+    private String token;
+
+    @Setup
+    public void setUp() throws IOException {
+        jwtService = newJwtService(verifiedCache, signingMode);
+        subject = new TokenSubject(UUID.randomUUID(), "test@gmail.com", 0, List.of());
+        token = jwtService.generateAuthToken(subject).getToken();
+    }
+
+    static JwtService newJwtService(boolean verifiedCache, String signingMode) throws IOException {
+        SigningKeyRing signingKeyRing = new SigningKeyRing(signingMode, Duration.ofHours(24), Duration.ofMinutes(5), "");
+        ReflectionTestUtils.invokeMethod(signingKeyRing, "init");
+        JwtService jwtService = new JwtService(new VerifiedTokenCache(verifiedCache, 10000),
+                new InMemoryRevocationStore(500000, ""), signingKeyRing, new SimpleMeterRegistry(),
+                ObservationRegistry.NOOP, AuditLog.NOOP);
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", SECRET);
+        jwtService.init();
+        return jwtService;
+    }
+
+    @Benchmark
+    public JwtAuthenticationDto generateAuthToken() {
+        return jwtService.generateAuthToken(subject);
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return jwtService.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public String getEmailFromToken() {
+        return jwtService.getEmailFromToken(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyToken() {
+        return jwtService.verifyToken(token);
+    }
+}
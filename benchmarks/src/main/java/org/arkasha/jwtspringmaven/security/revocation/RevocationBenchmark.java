@@ -0,0 +1,80 @@
+package org.arkasha.jwtspringmaven.security.revocation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Черный список под конкуренцией: группа {@code mixed} - много потоков проверяют токены,
+ * пока один поток отзывает новые. {@code size} - сколько записей уже в таблице.
+ * <p>
+ * Емкость рассчитана на {@code size} плюс весь диапазон ключей писателя, чтобы {@code add}
+ * мерил вставку, а не отказ при переполнении.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RevocationBenchmark {
+    private static final int KEYS = 1 << 16;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private RevocationSet revocationSet;
+    private long[] highs;
+    private long[] lows;
+    private long now;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        now = Instant.now().getEpochSecond();
+        revocationSet = new RevocationSet(size + KEYS, Duration.ofMinutes(1), Duration.ofDays(1), now);
+        highs = new long[KEYS];
+        lows = new long[KEYS];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < KEYS; i++) {
+            highs[i] = random.nextLong();
+            lows[i] = random.nextLong();
+        }
+        for (int i = 0; i < size; i++) {
+            revocationSet.add(random.nextLong(), random.nextLong(), now + 3600, now);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkNoOverflows() {
+        if (revocationSet.getOverflows() > 0) {
+            throw new IllegalStateException("Revocation set overflowed " + revocationSet.getOverflows() + " times");
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(7)
+    public boolean contains() {
+        int i = ThreadLocalRandom.current().nextInt(KEYS);
+        return revocationSet.contains(highs[i], lows[i]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public boolean add() {
+        int i = ThreadLocalRandom.current().nextInt(KEYS);
+        return revocationSet.add(highs[i], lows[i], now + 3600, now);
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(8)
+    public boolean containsUncontended() {
+        int i = ThreadLocalRandom.current().nextInt(KEYS);
+        return revocationSet.contains(highs[i], lows[i]);
+    }
+}
@@ -0,0 +1,59 @@
+package org.arkasha.jwtspringmaven.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки и счетчики одного вызова.
+ * <p>
+ * Задержка считается от запланированного момента отправки, а не от фактического:
+ * если генератор или клиент отстали, ожидание попадает в перцентили (coordinated omission).
+ * Ошибки пишутся в отдельную гистограмму: быстрые отказы не должны занижать перцентили успешных вызовов.
+ */
+final class EndpointStats {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Recorder errorRecorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder dropped = new LongAdder();
+
+    void recordSuccess(long latencyNanos) {
+        recorder.recordValue(micros(latencyNanos));
+    }
+
+    void recordError(long latencyNanos) {
+        errorRecorder.recordValue(micros(latencyNanos));
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    Snapshot snapshot(double seconds) {
+        Histogram histogram = recorder.getIntervalHistogram();
+        Histogram errorHistogram = errorRecorder.getIntervalHistogram();
+        long count = histogram.getTotalCount();
+        return new Snapshot(count, errorHistogram.getTotalCount(), dropped.sum(), count / seconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()),
+                millis(errorHistogram.getValueAtPercentile(99)));
+    }
+
+    private static long micros(long latencyNanos) {
+        return Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    record Snapshot(long count, long errors, long dropped, double throughput,
+                    double p50Millis, double p99Millis, double p999Millis, double maxMillis,
+                    double errorP99Millis) {
+    }
+}
@@ -0,0 +1,337 @@
+package org.arkasha.jwtspringmaven.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Генератор нагрузки на API авторизации по открытой модели.
+ * <p>
+ * Запросы приходят пуассоновским потоком с интенсивностью {@code --rate} независимо от того,
+ * успевает ли приложение: медленный ответ не сдерживает следующие запросы, как в закрытой модели
+ * с фиксированным числом потоков. Смесь вызовов задается весами {@code --mix}.
+ * <p>
+ * До старта регистрируются и входят {@code --users} пользователей; sign-in, refresh и чтения
+ * выполняются от их имени, регистрация каждый раз создает нового пользователя.
+ * Приложение удобно поднимать на встроенной H2 с профилем {@code h2}.
+ */
+public final class LoadGenerator {
+    private static final String PASSWORD = "load-test-password";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int SETUP_CONCURRENCY = 16;
+    private static final int USER_PICK_ATTEMPTS = 4;
+
+    private final LoadOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong emailCounter = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final List<VirtualUser> users = new ArrayList<>();
+    private final Operation[] weightedOperations;
+
+    LoadGenerator(LoadOptions options) {
+        this.options = options;
+        List<Operation> weighted = new ArrayList<>();
+        options.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("--mix must contain at least one positive weight");
+        }
+        this.weightedOperations = weighted.toArray(Operation[]::new);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        }
+        catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        LoadGenerator generator = new LoadGenerator(options);
+        generator.setUp();
+        Map<Operation, EndpointStats.Snapshot> result = generator.run();
+        generator.print(result);
+        if (!options.report().isEmpty()) {
+            generator.writeReport(result, new File(options.report()));
+        }
+    }
+
+    void setUp() throws InterruptedException {
+        System.out.printf("Setting up %d users against %s%n", options.users(), options.baseUrl());
+        Semaphore permits = new Semaphore(SETUP_CONCURRENCY);
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < options.users(); i++) {
+            VirtualUser user = new VirtualUser(nextEmail(), PASSWORD);
+            users.add(user);
+            permits.acquire();
+            futures.add(send(registrationRequest(user.email, user.password))
+                    .thenCompose(response -> {
+                        expectOk("registration", response);
+                        return send(signInRequest(user));
+                    })
+                    .thenAccept(response -> {
+                        expectOk("sign-in", response);
+                        updateTokens(user, response.body());
+                    })
+                    .whenComplete((ignored, error) -> permits.release()));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    }
+
+    Map<Operation, EndpointStats.Snapshot> run() {
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime();
+        long measureStart = start + options.warmup().toNanos();
+        long end = measureStart + options.duration().toNanos();
+
+        System.out.printf("Warm-up %ds, measuring %ds at %.0f req/s%n",
+                options.warmup().toSeconds(), options.duration().toSeconds(), options.rate());
+        long intended = start;
+        while (intended < end) {
+            long delay = intended - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            dispatch(nextOperation(), intended, intended >= measureStart);
+            // Экспоненциальные интервалы дают пуассоновский поток
+            intended += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos);
+        }
+
+        long drainDeadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        double seconds = options.duration().toNanos() / 1e9;
+        Map<Operation, EndpointStats.Snapshot> result = new EnumMap<>(Operation.class);
+        stats.forEach((operation, endpoint) -> result.put(operation, endpoint.snapshot(seconds)));
+        return result;
+    }
+
+    private void dispatch(Operation operation, long intended, boolean measured) {
+        EndpointStats endpoint = stats.get(operation);
+        if (inFlight.incrementAndGet() > options.maxInFlight()) {
+            inFlight.decrementAndGet();
+            if (measured) {
+                endpoint.recordDropped();
+            }
+            return;
+        }
+
+        CompletableFuture<Boolean> call = switch (operation) {
+            case REGISTRATION -> send(registrationRequest(nextEmail(), PASSWORD)).thenApply(LoadGenerator::isOk);
+            case SIGN_IN -> exclusive(user -> send(signInRequest(user)));
+            case REFRESH -> exclusive(user -> send(refreshRequest(user)));
+            case USER_BY_ID -> shared(user -> authorized(user, "/user/" + user.userId()));
+            case USER_BY_EMAIL -> shared(user -> authorized(user, "/user/email/"
+                    + URLEncoder.encode(user.email, StandardCharsets.UTF_8)));
+        };
+
+        if (call == null) {
+            // Все выбранные пользователи заняты обновлением токенов
+            inFlight.decrementAndGet();
+            if (measured) {
+                endpoint.recordDropped();
+            }
+            return;
+        }
+        call.whenComplete((ok, error) -> {
+            inFlight.decrementAndGet();
+            if (!measured) {
+                return;
+            }
+            long latency = System.nanoTime() - intended;
+            if (error == null && ok) {
+                endpoint.recordSuccess(latency);
+            }
+            else {
+                endpoint.recordError(latency);
+            }
+        });
+    }
+
+    private CompletableFuture<Boolean> exclusive(Function<VirtualUser, CompletableFuture<HttpResponse<String>>> request) {
+        VirtualUser user = pickUser(true);
+        if (user == null) {
+            return null;
+        }
+        return request.apply(user)
+                .thenApply(response -> {
+                    if (!isOk(response)) {
+                        return false;
+                    }
+                    updateTokens(user, response.body());
+                    return true;
+                })
+                .whenComplete((ok, error) -> user.exclusiveRelease());
+    }
+
+    private CompletableFuture<Boolean> shared(Function<VirtualUser, HttpRequest> request) {
+        VirtualUser user = pickUser(false);
+        if (user == null) {
+            return null;
+        }
+        return send(request.apply(user))
+                .thenApply(LoadGenerator::isOk)
+                .whenComplete((ok, error) -> user.sharedRelease());
+    }
+
+    private VirtualUser pickUser(boolean exclusive) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < USER_PICK_ATTEMPTS; i++) {
+            VirtualUser user = users.get(random.nextInt(users.size()));
+            if (exclusive ? user.tryExclusiveAcquire() : user.trySharedAcquire()) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    private Operation nextOperation() {
+        return weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+    }
+
+    private String nextEmail() {
+        return "load-" + runId + "-" + emailCounter.incrementAndGet() + "@example.com";
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest registrationRequest(String email, String password) {
+        return post("/user/registration", Map.of(
+                "firstName", "Load",
+                "lastName", "Test",
+                "email", email,
+                "password", password));
+    }
+
+    private HttpRequest signInRequest(VirtualUser user) {
+        return post("/auth/sign-in", Map.of("email", user.email, "password", user.password));
+    }
+
+    private HttpRequest refreshRequest(VirtualUser user) {
+        return post("/auth/refresh", Map.of("refreshToken", user.refreshToken()));
+    }
+
+    private HttpRequest authorized(VirtualUser user, String path) {
+        return HttpRequest.newBuilder(URI.create(options.baseUrl() + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + user.token())
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, Map<String, String> body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(options.baseUrl() + path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void updateTokens(VirtualUser user, String body) {
+        try {
+            JsonNode tokens = objectMapper.readTree(body);
+            String token = tokens.get("token").asText();
+            user.signedIn(readUserId(token), token, tokens.get("refreshToken").asText());
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Unexpected sign-in response: " + body, e);
+        }
+    }
+
+    // id пользователя берется из claim uid, подпись здесь не проверяется
+    private UUID readUserId(String token) throws IOException {
+        byte[] payload = Base64.getUrlDecoder().decode(token.split("\\.")[1]);
+        return UUID.fromString(objectMapper.readTree(payload).get("uid").asText());
+    }
+
+    private static boolean isOk(HttpResponse<String> response) {
+        return response.statusCode() / 100 == 2;
+    }
+
+    private static void expectOk(String call, HttpResponse<String> response) {
+        if (!isOk(response)) {
+            throw new IllegalStateException(call + " failed during setup: "
+                    + response.statusCode() + " " + response.body());
+        }
+    }
+
+    void print(Map<Operation, EndpointStats.Snapshot> result) {
+        System.out.printf("%n%-14s %9s %8s %8s %9s %9s %9s %9s %9s %11s%n",
+                "endpoint", "count", "errors", "dropped", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms",
+                "err p99 ms");
+        long total = 0;
+        for (Map.Entry<Operation, EndpointStats.Snapshot> entry : result.entrySet()) {
+            EndpointStats.Snapshot s = entry.getValue();
+            total += s.count() + s.errors();
+            System.out.printf("%-14s %9d %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %11.2f%n",
+                    entry.getKey().key(), s.count(), s.errors(), s.dropped(), s.throughput(),
+                    s.p50Millis(), s.p99Millis(), s.p999Millis(), s.maxMillis(), s.errorP99Millis());
+        }
+        System.out.printf("%-14s %9d %27s %9.1f (offered %.1f)%n", "total", total, "",
+                total / (options.duration().toNanos() / 1e9), options.rate());
+    }
+
+    void writeReport(Map<Operation, EndpointStats.Snapshot> result, File file) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", options.baseUrl());
+        report.put("rate", options.rate());
+        report.put("warmupSeconds", options.warmup().toSeconds());
+        report.put("durationSeconds", options.duration().toSeconds());
+        report.put("users", options.users());
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        result.forEach((operation, snapshot) -> endpoints.put(operation.key(), snapshot));
+        report.put("endpoints", endpoints);
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,75 @@
+package org.arkasha.jwtspringmaven.loadgen;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Параметры прогона из аргументов вида {@code --key=value}
+ */
+public record LoadOptions(String baseUrl,
+                          double rate,
+                          Duration warmup,
+                          Duration duration,
+                          int users,
+                          int maxInFlight,
+                          Map<Operation, Integer> mix,
+                          String report) {
+
+    static final String USAGE = """
+            Usage: java -jar load-generator.jar [options]
+              --base-url=http://localhost:8080   адрес приложения
+              --rate=200                         запросов в секунду (открытая модель, пуассоновский поток)
+              --warmup=10s                       прогрев, в отчет не попадает
+              --duration=60s                     измерение
+              --users=100                        пользователей, заведенных до старта
+              --max-in-flight=10000              предел одновременных запросов, сверх него запрос считается dropped
+              --mix=registration=1,sign-in=2,refresh=2,user-by-id=10,user-by-email=5
+              --report=load-report.json          JSON-отчет (пусто - только таблица в stdout)
+            """;
+
+    public static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        return new LoadOptions(
+                values.getOrDefault("base-url", "http://localhost:8080"),
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                parseDuration(values.getOrDefault("warmup", "10s")),
+                parseDuration(values.getOrDefault("duration", "60s")),
+                Integer.parseInt(values.getOrDefault("users", "100")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "10000")),
+                parseMix(values.getOrDefault("mix",
+                        "registration=1,sign-in=2,refresh=2,user-by-id=10,user-by-email=5")),
+                values.getOrDefault("report", ""));
+    }
+
+    // 10s, 2m, 500ms
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration: " + value);
+        };
+    }
+
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.split("=");
+            mix.put(Operation.fromKey(weight[0].trim()), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,31 @@
+package org.arkasha.jwtspringmaven.loadgen;
+
+/**
+ * Вызовы API, из которых складывается нагрузка. {@code name} - ключ в {@code --mix}.
+ */
+public enum Operation {
+    REGISTRATION("registration"),
+    SIGN_IN("sign-in"),
+    REFRESH("refresh"),
+    USER_BY_ID("user-by-id"),
+    USER_BY_EMAIL("user-by-email");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + key);
+    }
+}
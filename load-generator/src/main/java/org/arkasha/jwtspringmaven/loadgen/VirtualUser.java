@@ -0,0 +1,68 @@
+package org.arkasha.jwtspringmaven.loadgen;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пользователь из пула генератора: учетные данные и текущая пара токенов.
+ * <p>
+ * refresh отзывает прежний access-токен, поэтому обновление токенов (sign-in, refresh) идет
+ * монопольно, а чтения с текущим токеном - совместно: {@code state} равен -1 при монопольном
+ * захвате и числу читателей иначе.
+ */
+final class VirtualUser {
+    final String email;
+    final String password;
+
+    private final AtomicInteger state = new AtomicInteger();
+    private volatile UUID userId;
+    private volatile String token;
+    private volatile String refreshToken;
+
+    VirtualUser(String email, String password) {
+        this.email = email;
+        this.password = password;
+    }
+
+    boolean trySharedAcquire() {
+        while (true) {
+            int current = state.get();
+            if (current < 0) {
+                return false;
+            }
+            if (state.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void sharedRelease() {
+        state.decrementAndGet();
+    }
+
+    boolean tryExclusiveAcquire() {
+        return state.compareAndSet(0, -1);
+    }
+
+    void exclusiveRelease() {
+        state.set(0);
+    }
+
+    void signedIn(UUID userId, String token, String refreshToken) {
+        this.userId = userId;
+        this.token = token;
+        this.refreshToken = refreshToken;
+    }
+
+    UUID userId() {
+        return userId;
+    }
+
+    String token() {
+        return token;
+    }
+
+    String refreshToken() {
+        return refreshToken;
+    }
+}
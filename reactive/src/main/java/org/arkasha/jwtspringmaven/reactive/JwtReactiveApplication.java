@@ -0,0 +1,37 @@
+package org.arkasha.jwtspringmaven.reactive;
+
+import org.arkasha.jwtspringmaven.audit.AuditLog;
+import org.arkasha.jwtspringmaven.reactive.security.R2dbcRevocationStore;
+import org.arkasha.jwtspringmaven.security.jwt.JwtService;
+import org.arkasha.jwtspringmaven.security.jwt.VerifiedTokenCache;
+import org.arkasha.jwtspringmaven.security.revocation.InMemoryRevocationStore;
+import org.arkasha.jwtspringmaven.security.signing.SigningKeyRing;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Неблокирующий вариант API на WebFlux и R2DBC.
+ * Логика токенов ({@link JwtService}) общая с сервлетным приложением. Черный список по умолчанию -
+ * общая таблица {@code revoked_tokens} ({@link R2dbcRevocationStore}); сервлетные реплики на той же базе
+ * должны работать с {@code jwt.revocation.store=jdbc}, иначе отзывы не видны друг другу.
+ * {@link InMemoryRevocationStore} ({@code jwt.revocation.store=memory}) годится только для одиночного запуска.
+ * Журнал аудита пишется через JDBC, поэтому здесь он отключен ({@link AuditLog#NOOP}).
+ */
+@SpringBootApplication
+@EnableScheduling
+@Import({JwtService.class, VerifiedTokenCache.class, InMemoryRevocationStore.class, SigningKeyRing.class})
+public class JwtReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(JwtReactiveApplication.class, args);
+	}
+
+	@Bean
+	AuditLog auditLog() {
+		return AuditLog.NOOP;
+	}
+
+}
@@ -0,0 +1,39 @@
+package org.arkasha.jwtspringmaven.reactive.controller;
+
+import org.arkasha.jwtspringmaven.dto.JwtAuthenticationDto;
+import org.arkasha.jwtspringmaven.dto.RefreshTokenDto;
+import org.arkasha.jwtspringmaven.dto.UserCredentialsDto;
+import org.arkasha.jwtspringmaven.reactive.service.ReactiveUserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/auth")
+public class ReactiveAuthController {
+    // Как в AuthController: неизвестный, истекший или уже использованный refresh-токен - пустой результат сервиса
+    private static final ResponseEntity<Object> REFRESH_FAILED = ResponseEntity.status(HttpStatus.FORBIDDEN)
+            .body("Authentication failed: Invalid refresh token");
+
+    private final ReactiveUserService userService;
+
+    public ReactiveAuthController(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    @PostMapping("/sign-in")
+    public Mono<JwtAuthenticationDto> signIn(@RequestBody UserCredentialsDto userCredentialsDto) {
+        return userService.signIn(userCredentialsDto);
+    }
+
+    @PostMapping("/refresh")
+    public Mono<ResponseEntity<Object>> refresh(@RequestBody RefreshTokenDto refreshTokenDto) {
+        return userService.refreshToken(refreshTokenDto)
+                .<ResponseEntity<Object>>map(ResponseEntity::ok)
+                .defaultIfEmpty(REFRESH_FAILED);
+    }
+}
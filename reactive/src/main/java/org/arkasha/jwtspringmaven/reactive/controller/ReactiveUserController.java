@@ -0,0 +1,37 @@
+package org.arkasha.jwtspringmaven.reactive.controller;
+
+import org.arkasha.jwtspringmaven.dto.UserDto;
+import org.arkasha.jwtspringmaven.reactive.service.ReactiveUserService;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/user")
+public class ReactiveUserController {
+    private final ReactiveUserService userService;
+
+    public ReactiveUserController(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    @PostMapping("/registration")
+    public Mono<String> createUser(@RequestBody UserDto userDto) {
+        return userService.addUser(userDto);
+    }
+
+    @PostMapping("/revoke-sessions")
+    public Mono<String> revokeAllSessions(Authentication authentication) {
+        return userService.revokeAllSessions(authentication.getName());
+    }
+
+    @GetMapping("/{id}")
+    public Mono<UserDto> getUserById(@PathVariable String id) {
+        return userService.getUserById(id);
+    }
+
+    @GetMapping("/email/{email}")
+    public Mono<UserDto> getUserByEmail(@PathVariable String email) {
+        return userService.getUserByEmail(email);
+    }
+}
@@ -0,0 +1,10 @@
+package org.arkasha.jwtspringmaven.reactive.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Строка таблицы {@code "jwt-authentication"}: только то, что нужно для refresh
+ */
+public record Session(UUID id, UUID userId, String tokenHash, Instant expiresAt) {
+}
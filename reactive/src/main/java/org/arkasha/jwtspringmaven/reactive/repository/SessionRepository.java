@@ -0,0 +1,91 @@
+package org.arkasha.jwtspringmaven.reactive.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Сессии в {@code "jwt-authentication"}, те же запросы, что у JPA-репозитория сервлетного приложения
+ */
+@Repository
+@RequiredArgsConstructor
+public class SessionRepository {
+    private final DatabaseClient databaseClient;
+
+    public Mono<Void> insert(UUID userId, String tokenHash, Instant tokenExpiresAt,
+                             String refreshTokenHash, Instant expiresAt, Instant now) {
+        return databaseClient.sql("INSERT INTO \"jwt-authentication\" (jwt_id, user_id, token_hash, token_expires_at,"
+                        + " refresh_token_hash, expires_at, created_at, updated_at)"
+                        + " VALUES (:id, :userId, :tokenHash, :tokenExpiresAt, :refreshTokenHash, :expiresAt, :now, :now)")
+                .bind("id", UUID.randomUUID())
+                .bind("userId", userId)
+                .bind("tokenHash", tokenHash)
+                .bind("tokenExpiresAt", toOffset(tokenExpiresAt))
+                .bind("refreshTokenHash", refreshTokenHash)
+                .bind("expiresAt", toOffset(expiresAt))
+                .bind("now", toOffset(now))
+                .then();
+    }
+
+    public Mono<Session> findByRefreshTokenHash(String refreshTokenHash) {
+        return databaseClient.sql("SELECT jwt_id, user_id, token_hash, expires_at FROM \"jwt-authentication\""
+                        + " WHERE refresh_token_hash = :refreshTokenHash")
+                .bind("refreshTokenHash", refreshTokenHash)
+                .map(row -> new Session(
+                        row.get("jwt_id", UUID.class),
+                        row.get("user_id", UUID.class),
+                        row.get("token_hash", String.class),
+                        row.get("expires_at", OffsetDateTime.class).toInstant()))
+                .one();
+    }
+
+    /**
+     * Меняет пару токенов сессии, только если refresh-токен еще не был использован
+     *
+     * @return 0, если сессию уже обновил параллельный запрос
+     */
+    public Mono<Long> rotateTokens(UUID id, String oldRefreshTokenHash, String tokenHash, Instant tokenExpiresAt,
+                                   String refreshTokenHash, Instant expiresAt, Instant now) {
+        return databaseClient.sql("UPDATE \"jwt-authentication\" SET token_hash = :tokenHash,"
+                        + " token_expires_at = :tokenExpiresAt, refresh_token_hash = :refreshTokenHash,"
+                        + " expires_at = :expiresAt, updated_at = :now"
+                        + " WHERE jwt_id = :id AND refresh_token_hash = :oldRefreshTokenHash")
+                .bind("tokenHash", tokenHash)
+                .bind("tokenExpiresAt", toOffset(tokenExpiresAt))
+                .bind("refreshTokenHash", refreshTokenHash)
+                .bind("expiresAt", toOffset(expiresAt))
+                .bind("now", toOffset(now))
+                .bind("id", id)
+                .bind("oldRefreshTokenHash", oldRefreshTokenHash)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Boolean> existsActiveByUserId(UUID userId, Instant now) {
+        return databaseClient.sql("SELECT 1 FROM \"jwt-authentication\""
+                        + " WHERE user_id = :userId AND token_expires_at > :now LIMIT 1")
+                .bind("userId", userId)
+                .bind("now", toOffset(now))
+                .map(row -> Boolean.TRUE)
+                .one()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    public Mono<Long> deleteByUserEmail(String email) {
+        return databaseClient.sql("DELETE FROM \"jwt-authentication\""
+                        + " WHERE user_id = (SELECT user_id FROM users WHERE email = :email)")
+                .bind("email", email)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static OffsetDateTime toOffset(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,10 @@
+package org.arkasha.jwtspringmaven.reactive.repository;
+
+import java.util.UUID;
+
+/**
+ * Строка таблицы {@code users}
+ */
+public record UserAccount(UUID userId, String firstName, String lastName, String email, String password,
+                          int tokenVersion) {
+}
@@ -0,0 +1,69 @@
+package org.arkasha.jwtspringmaven.reactive.repository;
+
+import io.r2dbc.spi.Parameters;
+import io.r2dbc.spi.R2dbcType;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class UserAccountRepository {
+    private static final String SELECT_USER =
+            "SELECT user_id, first_name, last_name, email, password, token_version FROM users";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<UserAccount> findByEmail(String email) {
+        return databaseClient.sql(SELECT_USER + " WHERE email = :email")
+                .bind("email", email)
+                .map(UserAccountRepository::toUserAccount)
+                .one();
+    }
+
+    public Mono<UserAccount> findByUserId(UUID userId) {
+        return databaseClient.sql(SELECT_USER + " WHERE user_id = :userId")
+                .bind("userId", userId)
+                .map(UserAccountRepository::toUserAccount)
+                .one();
+    }
+
+    public Mono<Integer> findTokenVersionByEmail(String email) {
+        return databaseClient.sql("SELECT token_version FROM users WHERE email = :email")
+                .bind("email", email)
+                .map(row -> row.get(0, Integer.class))
+                .one();
+    }
+
+    public Mono<Void> insert(UserAccount user) {
+        return databaseClient.sql("INSERT INTO users (user_id, first_name, last_name, email, password, token_version)"
+                        + " VALUES (:userId, :firstName, :lastName, :email, :password, 0)")
+                .bind("userId", user.userId())
+                .bind("firstName", Parameters.in(R2dbcType.VARCHAR, user.firstName()))
+                .bind("lastName", Parameters.in(R2dbcType.VARCHAR, user.lastName()))
+                .bind("email", user.email())
+                .bind("password", user.password())
+                .then();
+    }
+
+    public Mono<Long> incrementTokenVersion(String email) {
+        return databaseClient.sql("UPDATE users SET token_version = token_version + 1 WHERE email = :email")
+                .bind("email", email)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static UserAccount toUserAccount(Readable row) {
+        return new UserAccount(
+                row.get("user_id", UUID.class),
+                row.get("first_name", String.class),
+                row.get("last_name", String.class),
+                row.get("email", String.class),
+                row.get("password", String.class),
+                row.get("token_version", Integer.class));
+    }
+}
@@ -0,0 +1,203 @@
+package org.arkasha.jwtspringmaven.reactive.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.arkasha.jwtspringmaven.security.jwt.JwtService;
+import org.arkasha.jwtspringmaven.security.revocation.RevocationPollCursor;
+import org.arkasha.jwtspringmaven.security.revocation.RevocationSet;
+import org.arkasha.jwtspringmaven.security.revocation.RevocationStore;
+import org.arkasha.tokenverifier.TokenDigest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Черный список в общей таблице {@code revoked_tokens} через R2DBC - тот же, что у
+ * {@code JdbcRevocationStore} сервлетных реплик с {@code jwt.revocation.store=jdbc}.
+ * <p>
+ * Проверка идет по локальной копии ({@link RevocationSet}). Отзыв сразу попадает в нее,
+ * а строка в таблицу пишется асинхронно: {@link RevocationStore#revoke} вызывается из event loop
+ * и ждать базу не может. Чужие отзывы подтягиваются опросом; строки, закоммиченные не по порядку
+ * {@code id}, подбирает тот же {@link RevocationPollCursor}, что у сервлетного хранилища.
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.store", havingValue = "jdbc")
+@DependsOnDatabaseInitialization
+public class R2dbcRevocationStore implements RevocationStore, MeterBinder {
+
+    private static final Logger LOGGER = LogManager.getLogger(R2dbcRevocationStore.class);
+
+    private static final Duration BUCKET_WIDTH = Duration.ofMinutes(1);
+    private static final long EXPIRE_DELAY = 60 * 1000; // 1 минута в миллисекундах
+
+    private static final String INSERT_SQL =
+            "INSERT INTO revoked_tokens (digest_high, digest_low, expires_at) VALUES (:high, :low, :expiresAt)";
+    private static final String POLL_SQL =
+            "SELECT id, digest_high, digest_low, expires_at FROM revoked_tokens"
+                    + " WHERE id > :cursor AND expires_at > :now ORDER BY id LIMIT :limit";
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM revoked_tokens WHERE expires_at <= :now";
+
+    private final DatabaseClient databaseClient;
+    private final RevocationSet localRevocations;
+    private final int batchSize;
+
+    // Меняется только опросом; fixedDelay не запускает следующий опрос до конца предыдущего
+    private final RevocationPollCursor cursor;
+    private final LongAdder pulled = new LongAdder();
+    private final LongAdder pollFailures = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+
+    public R2dbcRevocationStore(DatabaseClient databaseClient,
+                                @Value("${jwt.revocation.max-entries:500000}") int maxEntries,
+                                @Value("${jwt.revocation.jdbc.batch-size:500}") int batchSize,
+                                @Value("${jwt.revocation.jdbc.max-gaps:1000}") long maxGaps,
+                                @Value("${jwt.revocation.jdbc.gap-timeout:10s}") Duration gapTimeout) {
+        this.databaseClient = databaseClient;
+        this.batchSize = batchSize;
+        this.cursor = new RevocationPollCursor(maxGaps, gapTimeout);
+        this.localRevocations = new RevocationSet(maxEntries, BUCKET_WIDTH,
+                JwtService.REFRESH_TOKEN_VALIDITY, Instant.now().getEpochSecond());
+    }
+
+    @PostConstruct
+    void init() {
+        Integer loaded = pollRevocations().block();
+        LOGGER.info("Loaded {} revoked tokens from database", loaded);
+    }
+
+    @Override
+    public boolean revoke(TokenDigest digest, Instant expiresAt) {
+        long expiresAtSeconds = expiresAt.getEpochSecond();
+        databaseClient.sql(INSERT_SQL)
+                .bind("high", digest.high())
+                .bind("low", digest.low())
+                .bind("expiresAt", expiresAtSeconds)
+                .then()
+                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.empty())
+                .subscribe(null, e -> {
+                    writeFailures.increment();
+                    LOGGER.warn("Failed to store revoked token {}: {}", digest, e.getMessage());
+                });
+        return localRevocations.add(digest.high(), digest.low(),
+                expiresAtSeconds, Instant.now().getEpochSecond());
+    }
+
+    @Override
+    public boolean isRevoked(TokenDigest digest) {
+        return localRevocations.contains(digest.high(), digest.low());
+    }
+
+    @Override
+    public int size() {
+        return localRevocations.size();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.jdbc.poll-interval:1000}")
+    public Mono<Void> poll() {
+        return pollRevocations()
+                .onErrorResume(e -> {
+                    pollFailures.increment();
+                    LOGGER.warn("Failed to poll revoked tokens: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @Scheduled(fixedRate = EXPIRE_DELAY)
+    public Mono<Void> expireRevocations() {
+        long now = Instant.now().getEpochSecond();
+        localRevocations.expire(now);
+        return databaseClient.sql(DELETE_EXPIRED_SQL)
+                .bind("now", now)
+                .then()
+                .onErrorResume(e -> {
+                    LOGGER.warn("Failed to delete expired revoked tokens: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Читает строки после позиции {@link RevocationPollCursor} пачками, пока пачка заполнена целиком
+     *
+     * @return число новых строк
+     */
+    private Mono<Integer> pollRevocations() {
+        return Mono.defer(() -> {
+            long nowMillis = System.currentTimeMillis();
+            return fetchBatch(cursor.start(nowMillis), nowMillis)
+                    .expand(batch -> batch.fetched() == batchSize ? fetchBatch(batch.maxId(), nowMillis) : Mono.empty())
+                    .reduce(0, (total, batch) -> total + batch.fresh())
+                    .doOnNext(pulled::add);
+        });
+    }
+
+    private Mono<Batch> fetchBatch(long after, long nowMillis) {
+        long now = Instant.now().getEpochSecond();
+        return databaseClient.sql(POLL_SQL)
+                .bind("cursor", after)
+                .bind("now", now)
+                .bind("limit", batchSize)
+                .map(row -> new long[]{
+                        row.get("id", Long.class),
+                        row.get("digest_high", Long.class),
+                        row.get("digest_low", Long.class),
+                        row.get("expires_at", Long.class)})
+                .all()
+                .collectList()
+                .map(rows -> addAll(rows, after, nowMillis, now));
+    }
+
+    private Batch addAll(List<long[]> rows, long after, long nowMillis, long now) {
+        long maxId = after;
+        int fresh = 0;
+        for (long[] row : rows) {
+            maxId = Math.max(maxId, row[0]);
+            if (cursor.accept(row[0], nowMillis)) {
+                localRevocations.add(row[1], row[2], row[3], now);
+                fresh++;
+            }
+        }
+        return new Batch(rows.size(), fresh, maxId);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("jwt.revocation.size", localRevocations, RevocationSet::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(registry);
+        FunctionCounter.builder("jwt.revocation.overflows", localRevocations, RevocationSet::getOverflows)
+                .description("Revocations rejected because the set was full")
+                .register(registry);
+        FunctionCounter.builder("jwt.revocation.pulled", pulled, LongAdder::sum)
+                .description("Revocations pulled from the shared table")
+                .register(registry);
+        FunctionCounter.builder("jwt.revocation.poll.failures", pollFailures, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("jwt.revocation.poll.gaps", cursor, RevocationPollCursor::getGaps)
+                .description("Missing ids the poll still waits for")
+                .register(registry);
+        FunctionCounter.builder("jwt.revocation.write.failures", writeFailures, LongAdder::sum)
+                .description("Revocations kept only locally because the insert failed")
+                .register(registry);
+    }
+
+    private record Batch(int fetched, int fresh, long maxId) {
+    }
+}
@@ -0,0 +1,69 @@
+package org.arkasha.jwtspringmaven.reactive.security;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.arkasha.jwtspringmaven.security.JwtPrincipal;
+import org.arkasha.jwtspringmaven.security.jwt.JwtService;
+import org.arkasha.tokenverifier.VerifiedToken;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Аналог JwtFilter: проверка подписи и черного списка в памяти, версия токена - через
+ * {@link ReactiveTokenVersionCache}, без запроса к базе на каждый запрос.
+ * Principal всегда строится из claims токена ({@link JwtPrincipal}), пользователь из базы не загружается.
+ * Не бин: WebFlux подключил бы любой WebFilter-бин еще и вне цепочки безопасности.
+ */
+@RequiredArgsConstructor
+public class ReactiveJwtFilter implements WebFilter {
+    private final JwtService jwtService;
+    private final ReactiveTokenVersionCache tokenVersionCache;
+
+    @Override
+    public @NonNull Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        String token = getTokenFromRequest(exchange);
+        if (token == null) {
+            return chain.filter(exchange);
+        }
+
+        VerifiedToken verifiedToken = jwtService.verifyToken(token);
+        if (!verifiedToken.isValid()) {
+            return chain.filter(exchange);
+        }
+
+        return tokenVersionCache.isCurrent(verifiedToken.subject(), verifiedToken.tokenVersion())
+                .map(current -> current ? Optional.of(toAuthentication(verifiedToken)) : Optional.<Authentication>empty())
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(authentication -> authentication
+                        .map(value -> chain.filter(exchange)
+                                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(value)))
+                        .orElseGet(() -> chain.filter(exchange)));
+    }
+
+    private static Authentication toAuthentication(VerifiedToken verifiedToken) {
+        List<GrantedAuthority> authorities = verifiedToken.authorities().stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+        JwtPrincipal principal = new JwtPrincipal(verifiedToken.userId(), verifiedToken.subject(), authorities);
+        return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+    }
+
+    private static String getTokenFromRequest(ServerWebExchange exchange) {
+        String bearerToken = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+}
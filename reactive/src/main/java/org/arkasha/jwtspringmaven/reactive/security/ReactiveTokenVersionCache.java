@@ -0,0 +1,92 @@
+package org.arkasha.jwtspringmaven.reactive.security;
+
+import org.arkasha.jwtspringmaven.reactive.repository.UserAccountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Неблокирующий аналог TokenVersionCache: версия токенов пользователя живет {@code security.token-version.ttl}.
+ * <p>
+ * Параллельные промахи по одному email подписываются на одну загрузку ({@link Mono#cache()}).
+ * Отсутствующий пользователь и ошибка не кэшируются. При переполнении вытесняются устаревшие записи,
+ * затем десятая часть кэша.
+ */
+@Component
+public class ReactiveTokenVersionCache {
+
+    private final UserAccountRepository userAccountRepository;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final ConcurrentMap<String, Entry> versions = new ConcurrentHashMap<>();
+
+    public ReactiveTokenVersionCache(UserAccountRepository userAccountRepository,
+                                     @Value("${security.token-version.ttl:30s}") Duration ttl,
+                                     @Value("${security.token-version.max-size:100000}") int maxSize) {
+        this.userAccountRepository = userAccountRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return true, если версия из токена совпадает с текущей версией пользователя
+     */
+    public Mono<Boolean> isCurrent(String email, int tokenVersion) {
+        long now = System.nanoTime();
+        Entry entry = versions.get(email);
+        if (!isFresh(entry, now)) {
+            entry = versions.compute(email, (key, existing) -> isFresh(existing, now) ? existing : new Entry(key, now));
+            if (versions.size() > maxSize) {
+                evict(now);
+            }
+        }
+        return entry.version
+                .map(version -> version == tokenVersion)
+                .defaultIfEmpty(false);
+    }
+
+    public void evict(String email) {
+        versions.remove(email);
+    }
+
+    private boolean isFresh(Entry entry, long now) {
+        return entry != null && now - entry.loadedAt < ttlNanos;
+    }
+
+    /**
+     * Сначала удаляет устаревшие записи, затем, если места всё ещё нет, - десятую часть кэша
+     */
+    private void evict(long now) {
+        versions.values().removeIf(entry -> now - entry.loadedAt >= ttlNanos);
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<Entry> iterator = versions.values().iterator();
+        while (versions.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private final class Entry {
+        private final Mono<Integer> version;
+        private final long loadedAt;
+
+        private Entry(String email, long loadedAt) {
+            this.loadedAt = loadedAt;
+            // Запрос уходит при первой подписке, а не внутри compute
+            this.version = userAccountRepository.findTokenVersionByEmail(email)
+                    .doOnSuccess(value -> {
+                        if (value == null) {
+                            // Пользователя нет - не кэшируем, чтобы регистрация была видна сразу
+                            versions.remove(email, this);
+                        }
+                    })
+                    .doOnError(error -> versions.remove(email, this))
+                    .cache();
+        }
+    }
+}
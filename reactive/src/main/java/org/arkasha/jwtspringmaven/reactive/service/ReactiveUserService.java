@@ -0,0 +1,130 @@
+package org.arkasha.jwtspringmaven.reactive.service;
+
+import lombok.RequiredArgsConstructor;
+import org.arkasha.jwtspringmaven.dto.JwtAuthenticationDto;
+import org.arkasha.jwtspringmaven.dto.RefreshTokenDto;
+import org.arkasha.jwtspringmaven.dto.UserCredentialsDto;
+import org.arkasha.jwtspringmaven.dto.UserDto;
+import org.arkasha.jwtspringmaven.reactive.repository.Session;
+import org.arkasha.jwtspringmaven.reactive.repository.SessionRepository;
+import org.arkasha.jwtspringmaven.reactive.repository.UserAccount;
+import org.arkasha.jwtspringmaven.reactive.repository.UserAccountRepository;
+import org.arkasha.jwtspringmaven.reactive.security.ReactiveTokenVersionCache;
+import org.arkasha.jwtspringmaven.security.jwt.JwtService;
+import org.arkasha.jwtspringmaven.security.jwt.TokenSubject;
+import org.arkasha.tokenverifier.TokenDigest;
+import org.springframework.data.crossstore.ChangeSetPersister;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.naming.AuthenticationException;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Тот же сценарий, что у UserServiceImpl, без блокирующих вызовов.
+ * BCrypt нагружает процессор, поэтому выполняется на {@link Schedulers#parallel()}, а не в event loop.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveUserService {
+    private static final String BAD_CREDENTIALS_MESSAGE = "Email or password is incorrect";
+
+    private final UserAccountRepository userAccountRepository;
+    private final SessionRepository sessionRepository;
+    private final JwtService jwtService;
+    private final PasswordEncoder passwordEncoder;
+    private final ReactiveTokenVersionCache tokenVersionCache;
+
+    public Mono<JwtAuthenticationDto> signIn(UserCredentialsDto userCredentialsDto) {
+        return userAccountRepository.findByEmail(userCredentialsDto.getEmail())
+                .filterWhen(user -> Mono.fromCallable(() ->
+                                passwordEncoder.matches(userCredentialsDto.getPassword(), user.password()))
+                        .subscribeOn(Schedulers.parallel()))
+                .switchIfEmpty(Mono.error(() -> new AuthenticationException(BAD_CREDENTIALS_MESSAGE)))
+                .flatMap(this::createSession);
+    }
+
+    public Mono<JwtAuthenticationDto> refreshToken(RefreshTokenDto refreshTokenDto) {
+        String refreshToken = refreshTokenDto.getRefreshToken();
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            return Mono.empty();
+        }
+        String refreshTokenHash = TokenDigest.of(refreshToken).toHex();
+        return sessionRepository.findByRefreshTokenHash(refreshTokenHash)
+                .filter(session -> session.expiresAt().isAfter(Instant.now()))
+                .flatMap(session -> userAccountRepository.findByUserId(session.userId())
+                        .flatMap(user -> rotateSession(session, user, refreshToken, refreshTokenHash)));
+    }
+
+    public Mono<UserDto> getUserById(String id) {
+        return userAccountRepository.findByUserId(UUID.fromString(id))
+                .map(ReactiveUserService::toDto)
+                .switchIfEmpty(Mono.error(ChangeSetPersister.NotFoundException::new));
+    }
+
+    public Mono<UserDto> getUserByEmail(String email) {
+        return userAccountRepository.findByEmail(email)
+                .filterWhen(user -> sessionRepository.existsActiveByUserId(user.userId(), Instant.now()))
+                .map(ReactiveUserService::toDto)
+                .switchIfEmpty(Mono.error(ChangeSetPersister.NotFoundException::new));
+    }
+
+    public Mono<String> addUser(UserDto userDto) {
+        return Mono.fromCallable(() -> passwordEncoder.encode(userDto.getPassword()))
+                .subscribeOn(Schedulers.parallel())
+                .map(encodedPassword -> new UserAccount(UUID.randomUUID(), userDto.getFirstName(),
+                        userDto.getLastName(), userDto.getEmail(), encodedPassword, 0))
+                .flatMap(user -> userAccountRepository.insert(user)
+                        .doOnSuccess(inserted -> tokenVersionCache.evict(user.email()))
+                        .thenReturn("User added: " + user.email()));
+    }
+
+    public Mono<String> revokeAllSessions(String email) {
+        return userAccountRepository.incrementTokenVersion(email)
+                .then(sessionRepository.deleteByUserEmail(email))
+                .doOnSuccess(deleted -> tokenVersionCache.evict(email))
+                .thenReturn("All sessions revoked for: " + email);
+    }
+
+    private Mono<JwtAuthenticationDto> createSession(UserAccount user) {
+        JwtAuthenticationDto authToken = jwtService.generateAuthToken(toTokenSubject(user));
+        Instant now = Instant.now();
+        return sessionRepository.insert(user.userId(),
+                        TokenDigest.of(authToken.getToken()).toHex(),
+                        now.plus(JwtService.ACCESS_TOKEN_VALIDITY),
+                        TokenDigest.of(authToken.getRefreshToken()).toHex(),
+                        now.plus(JwtService.REFRESH_TOKEN_VALIDITY),
+                        now)
+                .thenReturn(authToken);
+    }
+
+    private Mono<JwtAuthenticationDto> rotateSession(Session session, UserAccount user,
+                                                     String refreshToken, String refreshTokenHash) {
+        TokenSubject subject = toTokenSubject(user);
+        JwtAuthenticationDto authToken = jwtService.signRefreshedToken(subject);
+        Instant now = Instant.now();
+        return sessionRepository.rotateTokens(session.id(), refreshTokenHash,
+                        TokenDigest.of(authToken.getToken()).toHex(),
+                        now.plus(JwtService.ACCESS_TOKEN_VALIDITY),
+                        TokenDigest.of(authToken.getRefreshToken()).toHex(),
+                        now.plus(JwtService.REFRESH_TOKEN_VALIDITY),
+                        now)
+                .filter(updated -> updated > 0)
+                .map(updated -> {
+                    jwtService.completeRefresh(subject, refreshToken, TokenDigest.fromHex(session.tokenHash()));
+                    return authToken;
+                });
+    }
+
+    private static TokenSubject toTokenSubject(UserAccount user) {
+        return new TokenSubject(user.userId(), user.email(), user.tokenVersion(), List.of());
+    }
+
+    private static UserDto toDto(UserAccount user) {
+        return new UserDto(user.firstName(), user.lastName(), user.email(), user.password());
+    }
+}
@@ -0,0 +1,109 @@
+package org.arkasha.jwtspringmaven.reactive.controller;
+
+import org.arkasha.jwtspringmaven.dto.JwtAuthenticationDto;
+import org.arkasha.jwtspringmaven.dto.RefreshTokenDto;
+import org.arkasha.jwtspringmaven.dto.UserCredentialsDto;
+import org.arkasha.jwtspringmaven.dto.UserDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+@AutoConfigureWebTestClient
+class ReactiveUserControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void cleanUp() {
+        databaseClient.sql("DELETE FROM \"jwt-authentication\"").then()
+                .then(databaseClient.sql("DELETE FROM users").then())
+                .block();
+    }
+
+    private void register(String email, String password) {
+        webTestClient.post().uri("/user/registration")
+                .bodyValue(new UserDto("test", "test1", email, password))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    private JwtAuthenticationDto signIn(String email, String password) {
+        return webTestClient.post().uri("/auth/sign-in")
+                .bodyValue(new UserCredentialsDto(email, password))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JwtAuthenticationDto.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Test
+    void getUserByEmail() {
+        register("te@gmail.com", "111222333");
+        JwtAuthenticationDto tokens = signIn("te@gmail.com", "111222333");
+
+        webTestClient.get().uri("/user/email/te@gmail.com")
+                .header("Authorization", "Bearer " + tokens.getToken())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.email").isEqualTo("te@gmail.com");
+    }
+
+    @Test
+    void signIn_shouldRejectWrongPassword() {
+        register("te@gmail.com", "111222333");
+
+        webTestClient.post().uri("/auth/sign-in")
+                .bodyValue(new UserCredentialsDto("te@gmail.com", "wrong"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void refresh_shouldRotateTokensOnce() {
+        register("te@gmail.com", "111222333");
+        JwtAuthenticationDto tokens = signIn("te@gmail.com", "111222333");
+        RefreshTokenDto refreshTokenDto = new RefreshTokenDto(tokens.getRefreshToken());
+
+        webTestClient.post().uri("/auth/refresh")
+                .bodyValue(refreshTokenDto)
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.post().uri("/auth/refresh")
+                .bodyValue(refreshTokenDto)
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void refresh_shouldRejectMissingRefreshToken() {
+        webTestClient.post().uri("/auth/refresh")
+                .bodyValue(new RefreshTokenDto(null))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void revokeAllSessions() {
+        register("te@gmail.com", "111222333");
+        JwtAuthenticationDto tokens = signIn("te@gmail.com", "111222333");
+
+        webTestClient.post().uri("/user/revoke-sessions")
+                .header("Authorization", "Bearer " + tokens.getToken())
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/user/email/te@gmail.com")
+                .header("Authorization", "Bearer " + tokens.getToken())
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+}
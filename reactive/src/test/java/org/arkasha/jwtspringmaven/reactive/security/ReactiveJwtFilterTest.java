@@ -0,0 +1,123 @@
+package org.arkasha.jwtspringmaven.reactive.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.arkasha.jwtspringmaven.dto.JwtAuthenticationDto;
+import org.arkasha.jwtspringmaven.dto.RefreshTokenDto;
+import org.arkasha.jwtspringmaven.dto.UserCredentialsDto;
+import org.arkasha.jwtspringmaven.dto.UserDto;
+import org.arkasha.jwtspringmaven.security.jwt.JwtService;
+import org.arkasha.tokenverifier.TokenDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+@AutoConfigureWebTestClient
+class ReactiveJwtFilterTest {
+    private static final String EMAIL = "filter@gmail.com";
+    private static final String PASSWORD = "111222333";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private R2dbcRevocationStore revocationStore;
+
+    @Value("${jwt-secret}")
+    private String jwtSecret;
+
+    private JwtAuthenticationDto tokens;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM \"jwt-authentication\"").then()
+                .then(databaseClient.sql("DELETE FROM users").then())
+                .then(databaseClient.sql("DELETE FROM revoked_tokens").then())
+                .block();
+        webTestClient.post().uri("/user/registration")
+                .bodyValue(new UserDto("test", "test1", EMAIL, PASSWORD))
+                .exchange()
+                .expectStatus().isOk();
+        tokens = webTestClient.post().uri("/auth/sign-in")
+                .bodyValue(new UserCredentialsDto(EMAIL, PASSWORD))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JwtAuthenticationDto.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private WebTestClient.ResponseSpec getUser(String token) {
+        return webTestClient.get().uri("/user/email/" + EMAIL)
+                .header("Authorization", "Bearer " + token)
+                .exchange();
+    }
+
+    @Test
+    void filter_shouldAuthenticateValidToken() {
+        getUser(tokens.getToken()).expectStatus().isOk();
+    }
+
+    @Test
+    void filter_shouldRejectExpiredToken() {
+        String expired = Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(EMAIL)
+                .claim(JwtService.TOKEN_VERSION_CLAIM, 0)
+                .expiration(Date.from(Instant.now().minusSeconds(60)))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)))
+                .compact();
+
+        getUser(expired).expectStatus().isForbidden();
+    }
+
+    @Test
+    void filter_shouldRejectBadSignature() {
+        String token = tokens.getToken();
+        String foreignSignature = tokens.getRefreshToken().substring(tokens.getRefreshToken().lastIndexOf('.'));
+        String forged = token.substring(0, token.lastIndexOf('.')) + foreignSignature;
+
+        getUser(forged).expectStatus().isForbidden();
+    }
+
+    @Test
+    void filter_shouldRejectTokenRevokedByRefresh() {
+        webTestClient.post().uri("/auth/refresh")
+                .bodyValue(new RefreshTokenDto(tokens.getRefreshToken()))
+                .exchange()
+                .expectStatus().isOk();
+
+        getUser(tokens.getToken()).expectStatus().isForbidden();
+    }
+
+    @Test
+    void filter_shouldRejectTokenRevokedByAnotherReplica() {
+        getUser(tokens.getToken()).expectStatus().isOk();
+        TokenDigest digest = TokenDigest.of(tokens.getToken());
+
+        // Строку пишет сервлетная реплика через JdbcRevocationStore
+        databaseClient.sql("INSERT INTO revoked_tokens (digest_high, digest_low, expires_at) VALUES (:high, :low, :expiresAt)")
+                .bind("high", digest.high())
+                .bind("low", digest.low())
+                .bind("expiresAt", Instant.now().plusSeconds(300).getEpochSecond())
+                .then()
+                .block();
+        revocationStore.poll().block();
+
+        getUser(tokens.getToken()).expectStatus().isForbidden();
+    }
+}
@@ -0,0 +1,79 @@
+package org.arkasha.jwtspringmaven.reactive.security;
+
+import org.arkasha.jwtspringmaven.reactive.repository.UserAccountRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveTokenVersionCacheTest {
+    private static final String EMAIL = "test@gmail.com";
+
+    @Mock
+    private UserAccountRepository userAccountRepository;
+
+    @Test
+    void isCurrent_shouldCoalesceConcurrentMisses() {
+        ReactiveTokenVersionCache cache = new ReactiveTokenVersionCache(userAccountRepository, Duration.ofMinutes(1), 100);
+        Sinks.One<Integer> version = Sinks.one();
+        AtomicInteger queries = new AtomicInteger();
+        when(userAccountRepository.findTokenVersionByEmail(EMAIL))
+                .thenReturn(version.asMono().doOnSubscribe(subscription -> queries.incrementAndGet()));
+
+        Mono<Boolean> first = cache.isCurrent(EMAIL, 3);
+        Mono<Boolean> second = cache.isCurrent(EMAIL, 3);
+        Mono<Boolean> stale = cache.isCurrent(EMAIL, 2);
+        version.tryEmitValue(3);
+
+        assertEquals(true, first.block());
+        assertEquals(true, second.block());
+        assertEquals(false, stale.block());
+        assertEquals(true, cache.isCurrent(EMAIL, 3).block());
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void isCurrent_shouldNotCacheMissingUser() {
+        ReactiveTokenVersionCache cache = new ReactiveTokenVersionCache(userAccountRepository, Duration.ofMinutes(1), 100);
+        when(userAccountRepository.findTokenVersionByEmail(EMAIL))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just(0));
+
+        assertEquals(false, cache.isCurrent(EMAIL, 0).block());
+        assertEquals(true, cache.isCurrent(EMAIL, 0).block());
+    }
+
+    @Test
+    void isCurrent_shouldNotCacheFailure() {
+        ReactiveTokenVersionCache cache = new ReactiveTokenVersionCache(userAccountRepository, Duration.ofMinutes(1), 100);
+        when(userAccountRepository.findTokenVersionByEmail(EMAIL))
+                .thenReturn(Mono.error(new IllegalStateException("connection refused")))
+                .thenReturn(Mono.just(0));
+
+        assertThrows(IllegalStateException.class, () -> cache.isCurrent(EMAIL, 0).block());
+        assertEquals(true, cache.isCurrent(EMAIL, 0).block());
+    }
+
+    @Test
+    void evict_shouldForceReload() {
+        ReactiveTokenVersionCache cache = new ReactiveTokenVersionCache(userAccountRepository, Duration.ofMinutes(1), 100);
+        when(userAccountRepository.findTokenVersionByEmail(EMAIL))
+                .thenReturn(Mono.just(0))
+                .thenReturn(Mono.just(1));
+
+        assertEquals(true, cache.isCurrent(EMAIL, 0).block());
+        cache.evict(EMAIL);
+
+        assertEquals(false, cache.isCurrent(EMAIL, 0).block());
+        assertEquals(true, cache.isCurrent(EMAIL, 1).block());
+    }
+}
@@ -1,13 +0,0 @@
-package org.arkasha.jwtspringmaven;
-
-import org.springframework.boot.SpringApplication;
-import org.springframework.boot.autoconfigure.SpringBootApplication;
-
-@SpringBootApplication
-public class JwtSpringMavenApplication {
-
-	public static void main(String[] args) {
-		SpringApplication.run(JwtSpringMavenApplication.class, args);
-	}
-
-}
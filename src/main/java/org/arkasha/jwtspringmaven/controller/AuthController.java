@@ -1,38 +0,0 @@
-package org.arkasha.jwtspringmaven.controller;
-
-import org.arkasha.jwtspringmaven.dto.JwtAuthenticationDto;
-import org.arkasha.jwtspringmaven.dto.RefreshTokenDto;
-import org.arkasha.jwtspringmaven.dto.UserCredentialsDto;
-import org.arkasha.jwtspringmaven.service.UserService;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
-
-import javax.naming.AuthenticationException;
-
-@RestController
-@RequestMapping("/auth")
-public class AuthController {
-    private final UserService userService;
-
-    public AuthController(UserService userService) {
-        this.userService = userService;
-    }
-
-    @PostMapping("/sign-in")
-    public ResponseEntity<JwtAuthenticationDto> signIn(@RequestBody UserCredentialsDto userCredentialsDto) {
-        try {
-            JwtAuthenticationDto jwtAuthenticationDto = userService.signIn(userCredentialsDto);
-            return ResponseEntity.ok(jwtAuthenticationDto);
-        } catch (AuthenticationException e) {
-            throw new RuntimeException("Authentication failed: " + e.getMessage() + "unlucko malucko");
-        }
-    }
-
-    @PostMapping("/refresh")
-    public JwtAuthenticationDto refresh(@RequestBody RefreshTokenDto refreshTokenDto) throws Exception {
-        return userService.refreshToken(refreshTokenDto);
-    }
-}
@@ -1,14 +0,0 @@
-package org.arkasha.jwtspringmaven.repository;
-
-import org.arkasha.jwtspringmaven.entity.User;
-import org.springframework.data.jpa.repository.JpaRepository;
-
-import java.util.Optional;
-import java.util.UUID;
-
-public interface UserRepository extends JpaRepository<User, UUID> {
-    Optional<User> findByUserId(UUID id);
-    Optional<User> findByEmail(String email);
-    Optional<User> findByRefreshToken(String refreshToken);
-    Optional<User> findByToken(String token);
-}
@@ -1 +0,0 @@
-DELETE FROM users;
\ No newline at end of file
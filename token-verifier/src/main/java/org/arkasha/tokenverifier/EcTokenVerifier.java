@@ -0,0 +1,54 @@
+package org.arkasha.tokenverifier;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Проверка ES256 JWT открытым ключом, выбранным по {@code kid} заголовка.
+ * <p>
+ * Набор ключей берется у {@code keys} на каждую проверку: после ротации поставщик
+ * просто отдает новую неизменяемую карту (например, из {@link JwkSet#read}).
+ * Токен без {@code kid} или с неизвестным {@code kid} дает {@link TokenStatus#BAD_SIGNATURE}.
+ */
+public final class EcTokenVerifier extends TokenVerifier {
+    public static final String ALGORITHM = "ES256";
+    // Подпись JWS - R||S без DER, такой формат JDK принимает напрямую
+    private static final String SIGNATURE_ALGORITHM = "SHA256withECDSAinP1363Format";
+    private static final int SIGNATURE_LENGTH = 64;
+
+    private final Supplier<Map<String, PublicKey>> keys;
+
+    public EcTokenVerifier(Supplier<Map<String, PublicKey>> keys) {
+        this.keys = keys;
+    }
+
+    @Override
+    protected boolean supports(String algorithm) {
+        return ALGORITHM.equals(algorithm);
+    }
+
+    @Override
+    protected boolean verifySignature(Header header, byte[] token, int signingInputEnd) {
+        PublicKey key = header.keyId() == null ? null : keys.get().get(header.keyId());
+        if (key == null) {
+            return false;
+        }
+        ByteBuffer signature = decode(token, signingInputEnd + 1, token.length);
+        if (signature == null || signature.remaining() != SIGNATURE_LENGTH) {
+            return false;
+        }
+        try {
+            Signature verifier = Signature.getInstance(SIGNATURE_ALGORITHM);
+            verifier.initVerify(key);
+            verifier.update(token, 0, signingInputEnd);
+            return verifier.verify(signature.array(), signature.arrayOffset() + signature.position(), SIGNATURE_LENGTH);
+        }
+        catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.arkasha.tokenverifier;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Проверка HS256/HS384/HS512 JWT общим секретом.
+ * <p>
+ * Алгоритм берется из заголовка. Подпись сравнивается в каноническом base64url за постоянное время.
+ */
+public final class HmacTokenVerifier extends TokenVerifier {
+    private static final Map<String, Integer> ALGORITHMS = Map.of(
+            "HS256", 32,
+            "HS384", 48,
+            "HS512", 64);
+
+    private final byte[] secret;
+    private final Map<String, Mac> macs = new ConcurrentHashMap<>();
+
+    public HmacTokenVerifier(byte[] secret) {
+        this.secret = secret.clone();
+        for (Map.Entry<String, Integer> algorithm : ALGORITHMS.entrySet()) {
+            // Ключ короче хэша алгоритм не допускает (RFC 7518, 3.2)
+            if (secret.length >= algorithm.getValue()) {
+                macs.put(algorithm.getKey(), newMac(algorithm.getKey()));
+            }
+        }
+    }
+
+    @Override
+    protected boolean supports(String algorithm) {
+        return macs.containsKey(algorithm);
+    }
+
+    @Override
+    protected boolean verifySignature(Header header, byte[] token, int signingInputEnd) {
+        byte[] expected = Base64.getUrlEncoder().withoutPadding()
+                .encode(sign(macs.get(header.algorithm()), token, signingInputEnd));
+        int signatureStart = signingInputEnd + 1;
+        if (token.length - signatureStart != expected.length) {
+            return false;
+        }
+        int difference = 0;
+        for (int i = 0; i < expected.length; i++) {
+            difference |= expected[i] ^ token[signatureStart + i];
+        }
+        return difference == 0;
+    }
+
+    // Mac не потокобезопасен: копия прототипа дешевле Mac.getInstance и не зависит от числа потоков
+    private static byte[] sign(Mac prototype, byte[] token, int length) {
+        try {
+            Mac mac = (Mac) prototype.clone();
+            mac.update(token, 0, length);
+            return mac.doFinal();
+        }
+        catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Mac newMac(String algorithm) {
+        String javaName = "Hmac" + "SHA" + algorithm.substring(2);
+        try {
+            Mac mac = Mac.getInstance(javaName);
+            mac.init(new SecretKeySpec(secret, javaName));
+            return mac;
+        }
+        catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC " + javaName + " is not available", e);
+        }
+    }
+}
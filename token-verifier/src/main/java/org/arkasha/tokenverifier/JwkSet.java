@@ -0,0 +1,140 @@
+package org.arkasha.tokenverifier;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JWK Set (RFC 7517) с ключами EC P-256: запись для публикации и чтение на стороне проверки.
+ * Ключи других типов и кривых при чтении пропускаются.
+ */
+public final class JwkSet {
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final String CURVE = "secp256r1";
+    private static final int COORDINATE_LENGTH = 32;
+
+    private JwkSet() {
+    }
+
+    /**
+     * Отпечаток ключа по RFC 7638: SHA-256 от обязательных полей JWK в лексикографическом порядке
+     */
+    public static String thumbprint(ECPublicKey publicKey) {
+        String canonical = "{\"crv\":\"P-256\",\"kty\":\"EC\",\"x\":\"" + coordinate(publicKey.getW().getAffineX())
+                + "\",\"y\":\"" + coordinate(publicKey.getW().getAffineY()) + "\"}";
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        }
+        catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @param keys открытые ключи по {@code kid}; {@code kid} должен быть в base64url, как у {@link #thumbprint}
+     */
+    public static String write(Map<String, ECPublicKey> keys) {
+        StringBuilder json = new StringBuilder("{\"keys\":[");
+        for (Map.Entry<String, ECPublicKey> key : keys.entrySet()) {
+            if (json.charAt(json.length() - 1) != '[') {
+                json.append(',');
+            }
+            // Поля - только base64url и константы, экранирование не нужно
+            json.append("{\"kty\":\"EC\",\"crv\":\"P-256\",\"use\":\"sig\",\"alg\":\"")
+                    .append(EcTokenVerifier.ALGORITHM)
+                    .append("\",\"kid\":\"").append(key.getKey())
+                    .append("\",\"x\":\"").append(coordinate(key.getValue().getW().getAffineX()))
+                    .append("\",\"y\":\"").append(coordinate(key.getValue().getW().getAffineY()))
+                    .append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * @return ключи EC P-256 по {@code kid}, неизменяемая карта для {@link EcTokenVerifier}
+     * @throws IllegalArgumentException если документ не разбирается
+     */
+    public static Map<String, PublicKey> read(String json) {
+        Map<String, PublicKey> keys = new LinkedHashMap<>();
+        try (JsonParser parser = JSON.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("JWK Set must be an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!name.equals("keys") || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    readKey(parser, keys);
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JWK Set", e);
+        }
+        return Map.copyOf(keys);
+    }
+
+    private static void readKey(JsonParser parser, Map<String, PublicKey> keys) throws IOException {
+        Map<String, String> fields = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            if (parser.nextToken().isScalarValue()) {
+                fields.put(name, parser.getText());
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+        if (!"EC".equals(fields.get("kty")) || !"P-256".equals(fields.get("crv"))
+                || fields.get("kid") == null || fields.get("x") == null || fields.get("y") == null
+                || fields.containsKey("use") && !"sig".equals(fields.get("use"))) {
+            return;
+        }
+        try {
+            ECPoint point = new ECPoint(new BigInteger(1, Base64.getUrlDecoder().decode(fields.get("x"))),
+                    new BigInteger(1, Base64.getUrlDecoder().decode(fields.get("y"))));
+            keys.put(fields.get("kid"), KeyFactory.getInstance("EC")
+                    .generatePublic(new ECPublicKeySpec(point, curveParameters())));
+        }
+        catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid EC key " + fields.get("kid"), e);
+        }
+    }
+
+    private static ECParameterSpec curveParameters() throws GeneralSecurityException {
+        AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec(CURVE));
+        return parameters.getParameterSpec(ECParameterSpec.class);
+    }
+
+    // Координата - беззнаковое число ровно в 32 байта (RFC 7518, 6.2.1.2)
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[COORDINATE_LENGTH];
+        int length = Math.min(bytes.length, COORDINATE_LENGTH);
+        System.arraycopy(bytes, bytes.length - length, fixed, COORDINATE_LENGTH - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+}
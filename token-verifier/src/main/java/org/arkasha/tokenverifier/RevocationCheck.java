@@ -0,0 +1,13 @@
+package org.arkasha.tokenverifier;
+
+/**
+ * Проверка черного списка по отпечатку токена. Вызывается на каждую проверку,
+ * поэтому реализация должна отвечать из памяти.
+ */
+@FunctionalInterface
+public interface RevocationCheck {
+
+    RevocationCheck NONE = digest -> false;
+
+    boolean isRevoked(TokenDigest digest);
+}
@@ -0,0 +1,79 @@
+package org.arkasha.tokenverifier;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Компактный отпечаток токена: первые 128 бит SHA-256.
+ * Используется как ключ вместо полной строки токена.
+ */
+public final class TokenDigest {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final long high;
+    private final long low;
+
+    public TokenDigest(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public static TokenDigest of(String token) {
+        MessageDigest sha256 = SHA_256.get();
+        byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return new TokenDigest(readLong(hash, 0), readLong(hash, 8));
+    }
+
+    public static TokenDigest fromHex(String hex) {
+        if (hex == null || hex.length() != 32) {
+            throw new IllegalArgumentException("Token digest must be 32 hex characters");
+        }
+        return new TokenDigest(Long.parseUnsignedLong(hex, 0, 16, 16),
+                Long.parseUnsignedLong(hex, 16, 32, 16));
+    }
+
+    public long high() {
+        return high;
+    }
+
+    public long low() {
+        return low;
+    }
+
+    public String toHex() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TokenDigest that)) return false;
+        return high == that.high && low == that.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high ^ low);
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+}
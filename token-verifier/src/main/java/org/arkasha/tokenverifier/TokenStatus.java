@@ -0,0 +1,12 @@
+package org.arkasha.tokenverifier;
+
+/**
+ * Итог проверки токена
+ */
+public enum TokenStatus {
+    VALID,
+    EXPIRED,
+    MALFORMED,
+    BAD_SIGNATURE,
+    REVOKED
+}
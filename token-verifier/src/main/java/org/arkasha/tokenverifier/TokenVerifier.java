@@ -0,0 +1,278 @@
+package org.arkasha.tokenverifier;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Проверка компактного JWS без исключений на путях отказа.
+ * <p>
+ * Структура, подпись и срок проверяются вручную, а результат - {@link TokenStatus}:
+ * поток плохих токенов не тратит время на исключения со стектрейсами. Токен переводится в байты
+ * один раз, части JWS читаются прямо из этого массива; claims разбираются потоковым парсером
+ * Jackson без дерева и только после проверки подписи.
+ * <p>
+ * Заголовки прошедших проверку токенов запоминаются, так что для своих токенов заголовок
+ * не разбирается повторно. Саму подпись проверяет наследник по алгоритму и {@code kid} заголовка.
+ * Экземпляры потокобезопасны.
+ */
+public abstract class TokenVerifier {
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String AUTHORITIES_CLAIM = "roles";
+
+    private static final int MAX_KNOWN_HEADERS = 16;
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .enable(StreamReadFeature.STRICT_DUPLICATE_DETECTION)
+            .build();
+
+    // Копируется при записи: чтение без блокировок и без выделения памяти
+    private volatile KnownHeader[] knownHeaders = new KnownHeader[0];
+
+    /**
+     * Поля заголовка, от которых зависит проверка подписи
+     */
+    protected record Header(String algorithm, String keyId) {
+    }
+
+    private record KnownHeader(byte[] encoded, Header header) {
+    }
+
+    /**
+     * @return поддерживается ли алгоритм; неподдерживаемый дает {@link TokenStatus#MALFORMED}
+     */
+    protected abstract boolean supports(String algorithm);
+
+    /**
+     * @param token           токен в ASCII
+     * @param signingInputEnd конец заголовка и claims (позиция второй точки)
+     */
+    protected abstract boolean verifySignature(Header header, byte[] token, int signingInputEnd);
+
+    /**
+     * Сначала проверяет черный список, затем сам токен
+     */
+    public VerifiedToken verify(String token, Instant now, RevocationCheck revocationCheck) {
+        return revocationCheck.isRevoked(TokenDigest.of(token))
+                ? VerifiedToken.rejected(TokenStatus.REVOKED)
+                : verify(token, now);
+    }
+
+    public VerifiedToken verify(String token, Instant now) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot <= firstDot + 1 || secondDot == token.length() - 1
+                || token.indexOf('.', secondDot + 1) >= 0 || !isBase64Url(token)) {
+            return VerifiedToken.rejected(TokenStatus.MALFORMED);
+        }
+        byte[] bytes = token.getBytes(StandardCharsets.US_ASCII);
+
+        Header header = findKnownHeader(bytes, firstDot);
+        boolean known = header != null;
+        if (!known) {
+            header = readHeader(bytes, firstDot);
+            if (header == null) {
+                return VerifiedToken.rejected(TokenStatus.MALFORMED);
+            }
+        }
+
+        if (!verifySignature(header, bytes, secondDot)) {
+            return VerifiedToken.rejected(TokenStatus.BAD_SIGNATURE);
+        }
+        if (!known) {
+            rememberHeader(Arrays.copyOf(bytes, firstDot), header);
+        }
+
+        ByteBuffer claims = decode(bytes, firstDot + 1, secondDot);
+        return claims == null ? VerifiedToken.rejected(TokenStatus.MALFORMED) : readClaims(claims, now);
+    }
+
+    /**
+     * Декодирует base64url из части массива
+     *
+     * @return null, если кодировка неверна
+     */
+    protected static ByteBuffer decode(byte[] bytes, int from, int to) {
+        if ((to - from) % 4 == 1) {
+            return null;
+        }
+        try {
+            return Base64.getUrlDecoder().decode(ByteBuffer.wrap(bytes, from, to - from));
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Header findKnownHeader(byte[] bytes, int length) {
+        for (KnownHeader known : knownHeaders) {
+            if (Arrays.equals(known.encoded(), 0, known.encoded().length, bytes, 0, length)) {
+                return known.header();
+            }
+        }
+        return null;
+    }
+
+    // После ротации ключей старые заголовки больше не встретятся: полная таблица начинается заново
+    private void rememberHeader(byte[] encoded, Header header) {
+        KnownHeader[] current = knownHeaders;
+        KnownHeader[] updated = current.length >= MAX_KNOWN_HEADERS
+                ? new KnownHeader[1]
+                : Arrays.copyOf(current, current.length + 1);
+        updated[updated.length - 1] = new KnownHeader(encoded, header);
+        knownHeaders = updated;
+    }
+
+    // Чужой заголовок - редкий путь
+    private Header readHeader(byte[] bytes, int end) {
+        ByteBuffer json = decode(bytes, 0, end);
+        if (json == null) {
+            return null;
+        }
+        String algorithm = null;
+        String keyId = null;
+        try (JsonParser parser = JSON.createParser(json.array(), json.arrayOffset() + json.position(), json.remaining())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "alg" -> algorithm = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "kid" -> keyId = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    // Расширения, обязательные к пониманию, не поддерживаются
+                    case "crit" -> {
+                        return null;
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            if (parser.nextToken() != null) {
+                return null;
+            }
+        }
+        catch (IOException e) {
+            return null;
+        }
+        return algorithm != null && supports(algorithm) ? new Header(algorithm, keyId) : null;
+    }
+
+    private static VerifiedToken readClaims(ByteBuffer json, Instant now) {
+        Instant expiresAt = null;
+        Instant notBefore = null;
+        String subject = null;
+        String userId = null;
+        int tokenVersion = 0;
+        List<String> authorities = List.of();
+        try (JsonParser parser = JSON.createParser(json.array(), json.arrayOffset() + json.position(), json.remaining())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return VerifiedToken.rejected(TokenStatus.MALFORMED);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "exp", "nbf" -> {
+                        if (!value.isNumeric()) {
+                            return VerifiedToken.rejected(TokenStatus.MALFORMED);
+                        }
+                        Instant instant = Instant.ofEpochSecond(parser.getLongValue());
+                        if (name.equals("exp")) {
+                            expiresAt = instant;
+                        }
+                        else {
+                            notBefore = instant;
+                        }
+                    }
+                    // Объект или массив на месте строки или числа сбил бы разбор следующих claims
+                    case "sub", USER_ID_CLAIM -> {
+                        if (value != JsonToken.VALUE_STRING) {
+                            return VerifiedToken.rejected(TokenStatus.MALFORMED);
+                        }
+                        if (name.equals("sub")) {
+                            subject = parser.getText();
+                        }
+                        else {
+                            userId = parser.getText();
+                        }
+                    }
+                    case TOKEN_VERSION_CLAIM -> {
+                        if (value != JsonToken.VALUE_NUMBER_INT) {
+                            return VerifiedToken.rejected(TokenStatus.MALFORMED);
+                        }
+                        tokenVersion = parser.getIntValue();
+                    }
+                    case AUTHORITIES_CLAIM -> authorities = readStrings(parser, value);
+                    default -> parser.skipChildren();
+                }
+            }
+            if (parser.nextToken() != null) {
+                return VerifiedToken.rejected(TokenStatus.MALFORMED);
+            }
+        }
+        catch (IOException e) {
+            return VerifiedToken.rejected(TokenStatus.MALFORMED);
+        }
+
+        // Токен без exp бессрочен: свои токены его всегда содержат
+        if (expiresAt == null) {
+            return VerifiedToken.rejected(TokenStatus.MALFORMED);
+        }
+        if (now.isAfter(expiresAt)) {
+            return VerifiedToken.rejected(TokenStatus.EXPIRED);
+        }
+        if (notBefore != null && now.isBefore(notBefore)) {
+            return VerifiedToken.rejected(TokenStatus.MALFORMED);
+        }
+        UUID uid = null;
+        if (userId != null) {
+            try {
+                uid = UUID.fromString(userId);
+            }
+            catch (IllegalArgumentException e) {
+                return VerifiedToken.rejected(TokenStatus.MALFORMED);
+            }
+        }
+        return new VerifiedToken(TokenStatus.VALID, subject, expiresAt, tokenVersion, uid, authorities);
+    }
+
+    private static List<String> readStrings(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return List.of();
+        }
+        List<String> strings = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken().isScalarValue()) {
+                strings.add(parser.getText());
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+        return List.copyOf(strings);
+    }
+
+    private static boolean isBase64Url(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9'
+                    || c == '-' || c == '_' || c == '.')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,21 @@
+package org.arkasha.tokenverifier;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Результат однократной проверки токена: статус, subject, время истечения,
+ * версия токенов пользователя, а также id и роли пользователя, если они есть в токене.
+ */
+public record VerifiedToken(TokenStatus status, String subject, Instant expiresAt, int tokenVersion,
+                            UUID userId, List<String> authorities) {
+
+    public static VerifiedToken rejected(TokenStatus status) {
+        return new VerifiedToken(status, null, null, 0, null, List.of());
+    }
+
+    public boolean isValid() {
+        return status == TokenStatus.VALID;
+    }
+}
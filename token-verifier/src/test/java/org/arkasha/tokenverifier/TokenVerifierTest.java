@@ -0,0 +1,136 @@
+package org.arkasha.tokenverifier;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenVerifierTest {
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private final HmacTokenVerifier hmacVerifier = new HmacTokenVerifier(SECRET);
+
+    private static String base64(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String claims(long exp) {
+        return "{\"sub\":\"test@gmail.com\",\"uid\":\"" + USER_ID + "\",\"ver\":3,\"roles\":[\"USER\"],"
+                + "\"jti\":{\"nested\":[1,2]},\"exp\":" + exp + "}";
+    }
+
+    private static String hmacToken(String header, String claims) throws GeneralSecurityException {
+        String signingInput = base64(header) + "." + base64(claims);
+        Mac mac = Mac.getInstance("HmacSHA384");
+        mac.init(new SecretKeySpec(SECRET, "HmacSHA384"));
+        byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private static String ecToken(KeyPair keyPair, String keyId, String claims) throws GeneralSecurityException {
+        String signingInput = base64("{\"alg\":\"ES256\",\"kid\":\"" + keyId + "\"}") + "." + base64(claims);
+        Signature signer = Signature.getInstance("SHA256withECDSAinP1363Format");
+        signer.initSign(keyPair.getPrivate());
+        signer.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signer.sign());
+    }
+
+    private static KeyPair ecKeyPair() throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    @Test
+    void verify_shouldReadClaims_whenHmacSignatureIsValid() throws GeneralSecurityException {
+        String token = hmacToken("{\"alg\":\"HS384\"}", claims(NOW.getEpochSecond() + 60));
+
+        // Второй раз заголовок берется из памяти
+        hmacVerifier.verify(token, NOW);
+        VerifiedToken verified = hmacVerifier.verify(token, NOW);
+
+        assertEquals(TokenStatus.VALID, verified.status());
+        assertEquals("test@gmail.com", verified.subject());
+        assertEquals(USER_ID, verified.userId());
+        assertEquals(3, verified.tokenVersion());
+        assertEquals(List.of("USER"), verified.authorities());
+        assertEquals(NOW.plusSeconds(60), verified.expiresAt());
+    }
+
+    @Test
+    void verify_shouldReturnStatusWithoutThrowing_forBadTokens() throws GeneralSecurityException {
+        String valid = hmacToken("{\"alg\":\"HS384\"}", claims(NOW.getEpochSecond() + 60));
+        String tampered = valid.substring(0, valid.length() - 2) + (valid.endsWith("AA") ? "BB" : "AA");
+
+        assertEquals(TokenStatus.BAD_SIGNATURE, hmacVerifier.verify(tampered, NOW).status());
+        assertEquals(TokenStatus.EXPIRED, hmacVerifier.verify(
+                hmacToken("{\"alg\":\"HS384\"}", claims(NOW.getEpochSecond() - 1)), NOW).status());
+        assertEquals(TokenStatus.MALFORMED, hmacVerifier.verify(
+                base64("{\"alg\":\"none\"}") + "." + base64(claims(0)) + ".x", NOW).status());
+        assertEquals(TokenStatus.MALFORMED, hmacVerifier.verify(
+                hmacToken("{\"alg\":\"HS384\"}", "{\"sub\":\"a\",\"sub\":\"b\"}"), NOW).status());
+        assertEquals(TokenStatus.MALFORMED, hmacVerifier.verify("not a token", NOW).status());
+    }
+
+    @Test
+    void verify_shouldRejectTokenWithoutExp() throws GeneralSecurityException {
+        String token = hmacToken("{\"alg\":\"HS384\"}", "{\"sub\":\"test@gmail.com\",\"ver\":0}");
+
+        assertEquals(TokenStatus.MALFORMED, hmacVerifier.verify(token, NOW).status());
+    }
+
+    @Test
+    void verify_shouldRejectNonScalarClaims_insteadOfReadingNestedValues() throws GeneralSecurityException {
+        long exp = NOW.getEpochSecond() + 60;
+        // Без пропуска вложенного объекта "exp" внутри sub был бы прочитан как exp токена
+        String nestedSubject = "{\"sub\":{\"exp\":" + exp + "},\"ver\":0}";
+        String nestedUserId = "{\"uid\":[\"" + USER_ID + "\"],\"sub\":\"test@gmail.com\",\"exp\":" + exp + "}";
+        String nestedVersion = "{\"ver\":{\"ver\":3},\"sub\":\"test@gmail.com\",\"exp\":" + exp + "}";
+
+        for (String claims : List.of(nestedSubject, nestedUserId, nestedVersion)) {
+            assertEquals(TokenStatus.MALFORMED,
+                    hmacVerifier.verify(hmacToken("{\"alg\":\"HS384\"}", claims), NOW).status(), claims);
+        }
+    }
+
+    @Test
+    void verify_shouldConsultRevocationCheckFirst() throws GeneralSecurityException {
+        String token = hmacToken("{\"alg\":\"HS384\"}", claims(NOW.getEpochSecond() + 60));
+        TokenDigest revoked = TokenDigest.of(token);
+
+        assertEquals(TokenStatus.REVOKED, hmacVerifier.verify(token, NOW, revoked::equals).status());
+        assertEquals(TokenStatus.VALID, hmacVerifier.verify(token, NOW, RevocationCheck.NONE).status());
+    }
+
+    @Test
+    void verify_shouldPickEcKeyByKeyIdFromPublishedJwkSet() throws GeneralSecurityException {
+        KeyPair keyPair = ecKeyPair();
+        String keyId = JwkSet.thumbprint((ECPublicKey) keyPair.getPublic());
+        Map<String, PublicKey> keys = JwkSet.read(JwkSet.write(Map.of(keyId, (ECPublicKey) keyPair.getPublic())));
+        EcTokenVerifier verifier = new EcTokenVerifier(() -> keys);
+
+        assertEquals(TokenStatus.VALID,
+                verifier.verify(ecToken(keyPair, keyId, claims(NOW.getEpochSecond() + 60)), NOW).status());
+        assertEquals(TokenStatus.BAD_SIGNATURE,
+                verifier.verify(ecToken(ecKeyPair(), "unknown", claims(NOW.getEpochSecond() + 60)), NOW).status());
+        assertEquals(TokenStatus.BAD_SIGNATURE,
+                verifier.verify(ecToken(ecKeyPair(), keyId, claims(NOW.getEpochSecond() + 60)), NOW).status());
+    }
+}